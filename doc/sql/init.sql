@@ -9,6 +9,7 @@ CREATE TABLE apps (
     app_secret VARCHAR(200) NOT NULL COMMENT '微信小程序AppSecret',
     description VARCHAR(500) COMMENT '应用描述',
     status TINYINT DEFAULT 1 COMMENT '应用状态：1-正常，0-禁用',
+    token_mode TINYINT DEFAULT 0 COMMENT '令牌模式：0-JWT，1-不透明会话令牌',
     creator VARCHAR(50) COMMENT '创建人',
     creator_id VARCHAR(50) COMMENT '创建人ID',
     create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -77,7 +78,7 @@ CREATE TABLE user_sessions (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '会话ID',
     user_id BIGINT NOT NULL COMMENT '用户ID',
     app_id BIGINT COMMENT '应用ID',
-    session_token VARCHAR(255) NOT NULL COMMENT '会话令牌',
+    token_digest CHAR(32) CHARACTER SET ascii NOT NULL COMMENT '会话令牌摘要（SHA-256前128位，十六进制）',
     login_ip VARCHAR(45) COMMENT '登录IP',
     user_agent VARCHAR(500) COMMENT '用户代理',
     expire_time DATETIME NOT NULL COMMENT '过期时间',
@@ -114,7 +115,7 @@ CREATE INDEX idx_qr_login_status ON qr_login_records(status);
 CREATE INDEX idx_qr_login_expire_time ON qr_login_records(expire_time);
 
 -- 用户会话表索引
-CREATE INDEX idx_sessions_token ON user_sessions(session_token);
+CREATE INDEX idx_sessions_token_digest ON user_sessions(token_digest);
 CREATE INDEX idx_sessions_user_id ON user_sessions(user_id);
 CREATE INDEX idx_sessions_app_id ON user_sessions(app_id);
 CREATE INDEX idx_sessions_expire_time ON user_sessions(expire_time);
@@ -0,0 +1,18 @@
+-- 1.0.16 升级脚本（已有数据库执行，新库直接使用 init.sql）
+
+-- 应用表增加令牌模式：0-JWT，1-不透明会话令牌
+ALTER TABLE apps ADD COLUMN token_mode TINYINT DEFAULT 0 COMMENT '令牌模式：0-JWT，1-不透明会话令牌' AFTER status;
+
+-- 会话表以令牌摘要代替完整令牌（摘要为 SHA-256 前128位的小写十六进制，与 TokenDigest 一致）
+-- 第一步（随本版本发布前执行）：增加摘要列并回填，旧列改为可空，新代码只写摘要列
+-- 摘要列在滚动发布期间保持可空：旧版本节点插入会话时只写 session_token
+ALTER TABLE user_sessions ADD COLUMN token_digest CHAR(32) CHARACTER SET ascii NULL COMMENT '会话令牌摘要（SHA-256前128位，十六进制）' AFTER app_id;
+UPDATE user_sessions SET token_digest = LEFT(SHA2(session_token, 256), 32) WHERE token_digest IS NULL;
+ALTER TABLE user_sessions MODIFY COLUMN session_token VARCHAR(255) NULL COMMENT '会话令牌（已废弃）';
+CREATE INDEX idx_sessions_token_digest ON user_sessions(token_digest);
+
+-- 第二步（全部节点升级到新版本、确认无需回滚后执行）：回填发布期间旧节点写入的会话，摘要列改为非空，删除完整令牌列
+-- UPDATE user_sessions SET token_digest = LEFT(SHA2(session_token, 256), 32) WHERE token_digest IS NULL;
+-- ALTER TABLE user_sessions MODIFY COLUMN token_digest CHAR(32) CHARACTER SET ascii NOT NULL COMMENT '会话令牌摘要（SHA-256前128位，十六进制）';
+-- DROP INDEX idx_sessions_token ON user_sessions;
+-- ALTER TABLE user_sessions DROP COLUMN session_token;
@@ -1,5 +1,10 @@
 package com.ravey.ai.user.api.constants;
 
+import com.ravey.ai.user.api.utils.KeyTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 缓存常量类
  *
@@ -27,8 +32,8 @@ public class CacheConstants {
     public static final String USER_INFO_KEY = "user:info:{}";
 
     /**
-     * 用户会话缓存键
-     * 格式：user:session:{token}
+     * 用户会话缓存键，以令牌摘要（32位十六进制）代替完整令牌，键长固定
+     * 格式：user:session:{tokenDigest}
      */
     public static final String USER_SESSION_KEY = "user:session:{}";
 
@@ -44,6 +49,24 @@ public class CacheConstants {
      */
     public static final String TOKEN_USER_KEY = "token:user:{}";
 
+    /**
+     * 不透明令牌会话缓存键
+     * 格式：user:opaque:{tokenDigest}
+     */
+    public static final String OPAQUE_SESSION_KEY = "user:opaque:{}";
+
+    /**
+     * 刷新令牌会话缓存键
+     * 格式：user:refresh:{refreshTokenDigest}
+     */
+    public static final String REFRESH_TOKEN_KEY = "user:refresh:{}";
+
+    /**
+     * 用户令牌版本键，版本递增即吊销该用户此前签发的全部令牌
+     * 格式：user:epoch:{userId}
+     */
+    public static final String USER_TOKEN_EPOCH_KEY = "user:epoch:{}";
+
     /**
      * 用户应用关联缓存键
      * 格式：user:app:{userId}:{appId}
@@ -74,6 +97,22 @@ public class CacheConstants {
      */
     public static final String WXA_CODE_KEY = "qr:wxacode:{}";
 
+    /**
+     * 缓存回源锁键，集群内同一缓存键同时只有一个节点回源
+     * 格式：lock:load:{cacheKey}
+     */
+    public static final String LOAD_LOCK_KEY = "lock:load:{}";
+
+    /**
+     * 近端缓存失效通知频道（Redis 发布/订阅）
+     */
+    public static final String NEAR_CACHE_INVALIDATION_CHANNEL = "user-center:cache:invalidate";
+
+    /**
+     * 已吊销令牌集合（有序集合，成员为令牌摘要，分值为令牌过期时间毫秒时间戳）
+     */
+    public static final String REVOKED_TOKENS_KEY = "token:revoked";
+
     // 缓存过期时间常量（秒）
     
     /**
@@ -116,18 +155,31 @@ public class CacheConstants {
      */
     public static final long WXA_CODE_EXPIRE = 5 * 60;
 
+    /**
+     * 不存在结果（未知应用、已删除用户）缓存时间：1分钟，对应记录创建时立即删除
+     */
+    public static final long NOT_FOUND_EXPIRE = 60;
+
+    /**
+     * 应用信息提前刷新时间：1小时（写入超过1小时后再次读取即在后台重新加载，热点应用不会过期）
+     */
+    public static final long APP_INFO_REFRESH_AFTER = 60 * 60;
+
+    /**
+     * 已解析的缓存键模板
+     */
+    private static final Map<String, KeyTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
     /**
      * 格式化缓存键
      *
      * @param template 缓存键模板
      * @param params   参数
      * @return 格式化后的缓存键
+     * @deprecated 使用 {@link CacheKeys} 中对应的类型化方法
      */
+    @Deprecated
     public static String formatKey(String template, Object... params) {
-        String result = template;
-        for (Object param : params) {
-            result = result.replaceFirst("\\{\\}", String.valueOf(param));
-        }
-        return result;
+        return TEMPLATES.computeIfAbsent(template, KeyTemplate::compile).formatLenient(params);
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.ravey.ai.user.api.constants;
+
+import com.ravey.ai.user.api.utils.KeyTemplate;
+import com.ravey.ai.user.api.utils.TokenDigest;
+
+/**
+ * 缓存键构造器
+ * 每类缓存键一个类型化方法，模板在类加载时预解析，生成键只做一次定长拼接
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public final class CacheKeys {
+
+    /**
+     * 不区分应用时 user:token 键中的应用ID
+     */
+    public static final String DEFAULT_APP = "default";
+
+    private static final KeyTemplate MINI_APP_ACCESS_TOKEN = KeyTemplate.compile(CacheConstants.MINI_APP_ACCESS_TOKEN_KEY);
+    private static final KeyTemplate APP_INFO = KeyTemplate.compile(CacheConstants.APP_INFO_KEY);
+    private static final KeyTemplate USER_INFO = KeyTemplate.compile(CacheConstants.USER_INFO_KEY);
+    private static final KeyTemplate USER_SESSION = KeyTemplate.compile(CacheConstants.USER_SESSION_KEY);
+    private static final KeyTemplate USER_TOKEN = KeyTemplate.compile(CacheConstants.USER_TOKEN_KEY);
+    private static final KeyTemplate TOKEN_USER = KeyTemplate.compile(CacheConstants.TOKEN_USER_KEY);
+    private static final KeyTemplate OPAQUE_SESSION = KeyTemplate.compile(CacheConstants.OPAQUE_SESSION_KEY);
+    private static final KeyTemplate REFRESH_TOKEN = KeyTemplate.compile(CacheConstants.REFRESH_TOKEN_KEY);
+    private static final KeyTemplate USER_TOKEN_EPOCH = KeyTemplate.compile(CacheConstants.USER_TOKEN_EPOCH_KEY);
+    private static final KeyTemplate USER_APP = KeyTemplate.compile(CacheConstants.USER_APP_KEY);
+    private static final KeyTemplate WECHAT_SESSION = KeyTemplate.compile(CacheConstants.WECHAT_SESSION_KEY);
+    private static final KeyTemplate WECHAT_CODE = KeyTemplate.compile(CacheConstants.WECHAT_CODE_KEY);
+    private static final KeyTemplate QR_TOKEN = KeyTemplate.compile(CacheConstants.QR_TOKEN_KEY);
+    private static final KeyTemplate WXA_CODE = KeyTemplate.compile(CacheConstants.WXA_CODE_KEY);
+    private static final KeyTemplate LOAD_LOCK = KeyTemplate.compile(CacheConstants.LOAD_LOCK_KEY);
+
+    private CacheKeys() {
+    }
+
+    /**
+     * mini_app:access_token:{appId}
+     */
+    public static String miniAppAccessToken(String appId) {
+        return MINI_APP_ACCESS_TOKEN.format(appId);
+    }
+
+    /**
+     * app:info:{appId}
+     */
+    public static String appInfo(String appId) {
+        return APP_INFO.format(appId);
+    }
+
+    /**
+     * user:info:{userId}
+     */
+    public static String userInfo(Long userId) {
+        return USER_INFO.format(userId);
+    }
+
+    /**
+     * user:session:{tokenDigest}
+     */
+    public static String userSession(TokenDigest digest) {
+        return USER_SESSION.format(digest.toString());
+    }
+
+    /**
+     * user:session:{token}，1.0.16 之前以完整令牌为键的会话，仅迁移期间兼容读取和删除
+     */
+    public static String legacyUserSession(String token) {
+        return USER_SESSION.format(token);
+    }
+
+    /**
+     * user:token:{userId}:{appId}，appId 为空时使用 {@link #DEFAULT_APP}
+     */
+    public static String userToken(Long userId, String appId) {
+        return USER_TOKEN.format(userId, appId != null ? appId : DEFAULT_APP);
+    }
+
+    /**
+     * user:token:{userId}:default，不区分应用的 userId -> 令牌摘要反向缓存
+     */
+    public static String userToken(Long userId) {
+        return USER_TOKEN.format(userId, DEFAULT_APP);
+    }
+
+    /**
+     * token:user:{token}
+     */
+    public static String tokenUser(String token) {
+        return TOKEN_USER.format(token);
+    }
+
+    /**
+     * user:opaque:{tokenDigest}
+     */
+    public static String opaqueSession(TokenDigest digest) {
+        return OPAQUE_SESSION.format(digest.toString());
+    }
+
+    /**
+     * user:refresh:{refreshTokenDigest}
+     */
+    public static String refreshToken(TokenDigest digest) {
+        return REFRESH_TOKEN.format(digest.toString());
+    }
+
+    /**
+     * user:epoch:{userId}
+     */
+    public static String userTokenEpoch(Long userId) {
+        return USER_TOKEN_EPOCH.format(userId);
+    }
+
+    /**
+     * user:app:{userId}:{appId}
+     */
+    public static String userApp(Long userId, String appId) {
+        return USER_APP.format(userId, appId);
+    }
+
+    /**
+     * wechat:session:{appId}:{code}
+     */
+    public static String wechatSession(String appId, String code) {
+        return WECHAT_SESSION.format(appId, code);
+    }
+
+    /**
+     * wechat:code:{appId}:{code}
+     */
+    public static String wechatCode(String appId, String code) {
+        return WECHAT_CODE.format(appId, code);
+    }
+
+    /**
+     * qr:token:{qrcodeId}
+     */
+    public static String qrToken(String qrcodeId) {
+        return QR_TOKEN.format(qrcodeId);
+    }
+
+    /**
+     * qr:wxacode:{qrcodeId}
+     */
+    public static String wxaCode(String qrcodeId) {
+        return WXA_CODE.format(qrcodeId);
+    }
+
+    /**
+     * lock:load:{cacheKey}
+     */
+    public static String loadLock(String cacheKey) {
+        return LOAD_LOCK.format(cacheKey);
+    }
+}
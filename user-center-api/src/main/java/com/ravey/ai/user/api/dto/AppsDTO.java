@@ -41,4 +41,9 @@ public class AppsDTO {
      * 状态：1-正常，0-禁用
      */
     private Integer status;
+
+    /**
+     * 令牌模式：0-JWT，1-不透明会话令牌
+     */
+    private Integer tokenMode;
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.ravey.ai.user.api.enums;
+
+/**
+ * 应用的访问令牌模式
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public enum TokenMode {
+
+    /**
+     * JWT：自包含的签名令牌，本地验签
+     */
+    JWT(0),
+
+    /**
+     * 不透明会话令牌：128位随机标识，声明保存在 Redis 会话中，请求头更短、无需验签
+     */
+    OPAQUE(1);
+
+    private final int code;
+
+    TokenMode(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 根据 apps.token_mode 取值获取令牌模式，未配置或无法识别时为 JWT
+     *
+     * @param code 令牌模式取值
+     * @return 令牌模式
+     */
+    public static TokenMode of(Integer code) {
+        return code != null && code == OPAQUE.code ? OPAQUE : JWT;
+    }
+}
@@ -26,6 +26,8 @@ public enum UserErrorCode implements ErrorCode {
     PASSWORD_ERROR(1201, "密码错误"),
     INVALID_LOGIN_TYPE(1202, "不支持的登录方式"),
     NOT_LOGGED_IN(1203, "未登录"),
+    INTERNAL_TOKEN_INVALID(1204, "内部调用密钥无效"),
+    REFRESH_TOKEN_INVALID(1205, "刷新令牌无效或已过期"),
     
     // 验证码相关错误 1300-1399
     VERIFICATION_CODE_ERROR(1300, "验证码错误或已过期"),
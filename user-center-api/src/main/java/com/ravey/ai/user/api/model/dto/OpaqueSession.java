@@ -0,0 +1,39 @@
+package com.ravey.ai.user.api.model.dto;
+
+import lombok.Data;
+
+/**
+ * 不透明令牌会话
+ * 以令牌摘要为键保存在 Redis 中，承载 JWT 中原本自带的声明
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class OpaqueSession {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 应用ID
+     */
+    private String appId;
+
+    /**
+     * 签发时用户的令牌版本
+     */
+    private Long epoch;
+
+    /**
+     * 签发时间（毫秒时间戳）
+     */
+    private Long issuedAt;
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    private Long expiresAt;
+}
@@ -0,0 +1,34 @@
+package com.ravey.ai.user.api.model.dto;
+
+import lombok.Data;
+
+/**
+ * 扫码登录签发的令牌
+ * 手机端确认后写入 Redis，Web 端轮询 checkQr 时取回，有效期同二维码令牌缓存
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class QrLoginTokens {
+
+    /**
+     * 访问令牌
+     */
+    private String accessToken;
+
+    /**
+     * 访问令牌有效期（秒）
+     */
+    private Long expiresIn;
+
+    /**
+     * 刷新令牌
+     */
+    private String refreshToken;
+
+    /**
+     * 刷新令牌有效期（秒）
+     */
+    private Long refreshExpiresIn;
+}
@@ -0,0 +1,34 @@
+package com.ravey.ai.user.api.model.dto;
+
+import lombok.Data;
+
+/**
+ * 刷新令牌会话
+ * 以刷新令牌摘要为键保存在 Redis 中，刷新令牌本身不落库
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class RefreshSession {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 应用ID
+     */
+    private String appId;
+
+    /**
+     * 签发时用户的令牌版本，用户版本递增后刷新令牌一并失效
+     */
+    private Long epoch;
+
+    /**
+     * 首次登录时间（毫秒时间戳），轮换时保持不变
+     */
+    private Long loginAt;
+}
@@ -0,0 +1,85 @@
+package com.ravey.ai.user.api.model.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 已验签的令牌声明（不可变）
+ * 令牌只做一次签名校验和声明解析，之后在整个请求中复用
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Getter
+@RequiredArgsConstructor
+public final class VerifiedToken {
+
+    /**
+     * 原始令牌
+     */
+    private final String token;
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 应用ID
+     */
+    private final String appId;
+
+    /**
+     * 签发时间（毫秒时间戳）
+     */
+    private final long issuedAt;
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    private final long expiresAt;
+
+    /**
+     * 签发时用户的令牌版本，低于用户当前版本的令牌视为已吊销
+     */
+    private final long epoch;
+
+    /**
+     * 获取应用ID（Long格式）
+     *
+     * @return 应用ID，无法转换时返回null
+     */
+    public Long getAppIdAsLong() {
+        if (appId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(appId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 检查令牌是否已过期
+     *
+     * @return 是否过期
+     */
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    /**
+     * 获取令牌剩余有效时间（秒）
+     *
+     * @return 剩余有效时间，已过期返回0
+     */
+    public long getRemainingSeconds() {
+        return Math.max(0, (expiresAt - System.currentTimeMillis()) / 1000);
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken{userId=" + userId + ", appId=" + appId + ", expiresAt=" + expiresAt + "}";
+    }
+}
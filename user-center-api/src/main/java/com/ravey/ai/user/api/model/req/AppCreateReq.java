@@ -1,6 +1,8 @@
 package com.ravey.ai.user.api.model.req;
 
 import lombok.Data;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -39,4 +41,11 @@ public class AppCreateReq {
      */
     @Size(max = 500, message = "应用描述长度不能超过500个字符")
     private String description;
+
+    /**
+     * 令牌模式：0-JWT（默认），1-不透明会话令牌
+     */
+    @Min(value = 0, message = "令牌模式取值为0或1")
+    @Max(value = 1, message = "令牌模式取值为0或1")
+    private Integer tokenMode;
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.ravey.ai.user.api.model.req;
+
+import lombok.Data;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * 更新应用请求DTO
+ * 除 appId 外均为可选，为空的字段不修改
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class AppUpdateReq {
+
+    /**
+     * 微信小程序AppId
+     */
+    @NotBlank(message = "微信小程序AppId不能为空")
+    @Size(max = 100, message = "微信小程序AppId长度不能超过100个字符")
+    private String appId;
+
+    /**
+     * 应用名称
+     */
+    @Size(max = 100, message = "应用名称长度不能超过100个字符")
+    private String appName;
+
+    /**
+     * 微信小程序AppSecret
+     */
+    @Size(max = 255, message = "微信小程序AppSecret长度不能超过255个字符")
+    private String appSecret;
+
+    /**
+     * 应用描述
+     */
+    @Size(max = 500, message = "应用描述长度不能超过500个字符")
+    private String description;
+
+    /**
+     * 状态：0-禁用，1-启用
+     */
+    @Min(value = 0, message = "状态取值为0或1")
+    @Max(value = 1, message = "状态取值为0或1")
+    private Integer status;
+
+    /**
+     * 令牌模式：0-JWT，1-不透明会话令牌
+     */
+    @Min(value = 0, message = "令牌模式取值为0或1")
+    @Max(value = 1, message = "令牌模式取值为0或1")
+    private Integer tokenMode;
+}
@@ -0,0 +1,18 @@
+package com.ravey.ai.user.api.model.req;
+
+import lombok.Data;
+
+/**
+ * 退出登录请求
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class LogoutReq {
+
+    /**
+     * 刷新令牌（可选），传入时一并作废，避免退出后仍可换取新的访问令牌
+     */
+    private String refreshToken;
+}
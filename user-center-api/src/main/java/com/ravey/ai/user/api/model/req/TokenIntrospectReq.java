@@ -0,0 +1,22 @@
+package com.ravey.ai.user.api.model.req;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量令牌校验请求
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class TokenIntrospectReq {
+
+    /**
+     * 待校验的令牌列表
+     */
+    @NotEmpty(message = "令牌列表不能为空")
+    private List<String> tokens;
+}
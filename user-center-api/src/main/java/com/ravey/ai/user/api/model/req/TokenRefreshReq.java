@@ -0,0 +1,20 @@
+package com.ravey.ai.user.api.model.req;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * 刷新访问令牌请求
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class TokenRefreshReq {
+
+    /**
+     * 刷新令牌
+     */
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+}
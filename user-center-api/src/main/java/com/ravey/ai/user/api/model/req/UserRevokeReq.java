@@ -0,0 +1,20 @@
+package com.ravey.ai.user.api.model.req;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * 强制下线请求
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class UserRevokeReq {
+
+    /**
+     * 用户ID
+     */
+    @NotNull(message = "用户ID不能为空")
+    private Long userId;
+}
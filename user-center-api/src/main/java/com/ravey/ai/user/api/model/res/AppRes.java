@@ -38,6 +38,11 @@ public class AppRes {
      */
     private Integer status;
 
+    /**
+     * 令牌模式：0-JWT，1-不透明会话令牌
+     */
+    private Integer tokenMode;
+
     /**
      * 创建时间
      */
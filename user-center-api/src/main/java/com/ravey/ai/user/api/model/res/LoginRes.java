@@ -20,6 +20,16 @@ public class LoginRes {
      */
     private Long expiresIn;
 
+    /**
+     * 刷新令牌，访问令牌过期后用于换取新令牌
+     */
+    private String refreshToken;
+
+    /**
+     * 刷新令牌过期时间（秒）
+     */
+    private Long refreshExpiresIn;
+
     /**
      * 用户信息
      */
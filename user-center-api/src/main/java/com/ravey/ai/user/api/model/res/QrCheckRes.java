@@ -10,5 +10,17 @@ import lombok.Data;
 public class QrCheckRes {
     private Integer status;
     private String token;
+    /**
+     * 访问令牌有效期（秒）
+     */
+    private Long expiresIn;
+    /**
+     * 刷新令牌，访问令牌过期后调用 /front/auth/token/refresh 续期
+     */
+    private String refreshToken;
+    /**
+     * 刷新令牌有效期（秒）
+     */
+    private Long refreshExpiresIn;
     private MiniProgramLoginRes.UserInfo userInfo;
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.ravey.ai.user.api.model.res;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量令牌校验响应
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class TokenIntrospectRes {
+
+    /**
+     * 校验结果，与请求中的令牌顺序一一对应
+     */
+    private List<TokenResult> results;
+
+    /**
+     * 单个令牌的校验结果
+     */
+    @Data
+    public static class TokenResult {
+        /**
+         * 令牌是否有效（签名正确、未过期且会话存在）
+         */
+        private Boolean active;
+
+        /**
+         * 令牌是否已被吊销（签名正确且未过期，但会话已删除）
+         */
+        private Boolean revoked;
+
+        /**
+         * 用户ID
+         */
+        private Long userId;
+
+        /**
+         * 应用ID
+         */
+        private String appId;
+
+        /**
+         * 过期时间（毫秒时间戳）
+         */
+        private Long expiresAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ravey.ai.user.api.model.res;
+
+import lombok.Data;
+
+/**
+ * 刷新访问令牌响应
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Data
+public class TokenRefreshRes {
+
+    /**
+     * JWT令牌
+     */
+    private String token;
+
+    /**
+     * 令牌过期时间（秒）
+     */
+    private Long expiresIn;
+
+    /**
+     * 新的刷新令牌（旧刷新令牌已失效）
+     */
+    private String refreshToken;
+
+    /**
+     * 刷新令牌过期时间（秒）
+     */
+    private Long refreshExpiresIn;
+}
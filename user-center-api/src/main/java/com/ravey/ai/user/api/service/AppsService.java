@@ -1,6 +1,7 @@
 package com.ravey.ai.user.api.service;
 
 import com.ravey.ai.user.api.model.req.AppCreateReq;
+import com.ravey.ai.user.api.model.req.AppUpdateReq;
 import com.ravey.ai.user.api.model.res.AppListRes;
 import com.ravey.ai.user.api.model.res.AppRes;
 
@@ -20,6 +21,14 @@ public interface AppsService {
      */
     AppRes createApp(AppCreateReq req);
 
+    /**
+     * 更新应用，变更立即推送到缓存
+     *
+     * @param req 更新应用请求
+     * @return 应用信息
+     */
+    AppRes updateApp(AppUpdateReq req);
+
     /**
      * 获取应用列表
      *
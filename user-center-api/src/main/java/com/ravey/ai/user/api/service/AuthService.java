@@ -4,6 +4,8 @@ import com.ravey.ai.user.api.model.req.*;
 import com.ravey.ai.user.api.model.res.MiniProgramLoginRes;
 import com.ravey.ai.user.api.model.res.QrGenerateRes;
 import com.ravey.ai.user.api.model.res.QrCheckRes;
+import com.ravey.ai.user.api.model.res.TokenIntrospectRes;
+import com.ravey.ai.user.api.model.res.TokenRefreshRes;
 import com.ravey.ai.user.api.model.res.WxaCodeRes;
 
 /**
@@ -47,4 +49,37 @@ public interface AuthService {
      */
 
     WxaCodeRes generateWxaCode(WxaCodeReq req);
+
+    /**
+     * 批量校验令牌（供网关使用）
+     * 一次请求内完成全部令牌的验签和会话检查，会话检查只访问一次 Redis
+     *
+     * @param req 批量校验请求
+     * @return 与请求顺序一致的校验结果
+     */
+    TokenIntrospectRes introspectTokens(TokenIntrospectReq req);
+
+    /**
+     * 使用刷新令牌换取新的访问令牌
+     * 刷新令牌只能使用一次，每次刷新都会签发新的刷新令牌
+     *
+     * @param req 刷新请求
+     * @return 新的访问令牌和刷新令牌
+     */
+    TokenRefreshRes refreshToken(TokenRefreshReq req);
+
+    /**
+     * 退出登录：吊销当前访问令牌，传入刷新令牌时一并作废
+     *
+     * @param token 当前访问令牌
+     * @param req   退出登录请求
+     */
+    void logout(String token, LogoutReq req);
+
+    /**
+     * 强制下线：递增用户令牌版本，吊销该用户此前签发的全部令牌
+     *
+     * @param userId 用户ID
+     */
+    void revokeUserSessions(Long userId);
 }
\ No newline at end of file
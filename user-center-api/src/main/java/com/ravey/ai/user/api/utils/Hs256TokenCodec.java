@@ -0,0 +1,566 @@
+package com.ravey.ai.user.api.utils;
+
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * HS256 令牌解码器
+ * 只处理本服务签发的固定声明（userId、appId、ver、iat、exp）：从有界池中借用已初始化的 Mac 和解码缓冲区，
+ * Base64URL 直接解码到字节数组，载荷按扁平 JSON 逐字节解析，不经过 jjwt 的通用解析和 Jackson，也不以异常作为控制流。
+ * <p>
+ * 非 HS256 算法、带转义或嵌套结构的头和载荷、重复字段、nbf 等本服务不签发的声明、缺少 exp、
+ * 非规范的 Base64URL 编码一律返回 {@link #UNSUPPORTED}，由调用方回退到 jjwt 处理；
+ * 本解码器自行判定的结果与 jjwt 相同，因此可接受的令牌集合与 jjwt 一致，已签发的令牌不受影响。
+ * <p>
+ * 解码状态不绑定线程：虚拟线程模式下每个请求都是新线程，按线程缓存会让每次校验都重新创建 Mac 和缓冲区。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+final class Hs256TokenCodec {
+
+    /**
+     * 无法由本解码器处理，需回退到 jjwt 的标记结果（按引用比较）
+     */
+    static final VerifiedToken UNSUPPORTED = new VerifiedToken(null, null, null, 0L, 0L, 0L);
+
+    private static final String JCA_NAME = "HmacSHA256";
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    /**
+     * 签名段的规范 Base64URL 长度（无填充）
+     */
+    private static final int SIGNATURE_CHARS = 43;
+
+    /**
+     * 池中保留的解码状态上限；解码过程不阻塞，同时在用的数量通常不超过CPU核数
+     */
+    private static final int MAX_POOLED = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * 解码缓冲区超过该长度的解码状态用完即丢弃，不因个别超长令牌长期占用内存
+     */
+    private static final int MAX_POOLED_BUFFER = 8192;
+
+    private static final int SEEN_USER_ID = 1;
+    private static final int SEEN_APP_ID = 1 << 1;
+    private static final int SEEN_EPOCH = 1 << 2;
+    private static final int SEEN_IAT = 1 << 3;
+    private static final int SEEN_EXP = 1 << 4;
+
+    private static final byte[] ALG = ascii("alg");
+    private static final byte[] KID = ascii("kid");
+    private static final byte[] ZIP = ascii("zip");
+    private static final byte[] HS256 = ascii("HS256");
+    private static final byte[] USER_ID = ascii("userId");
+    private static final byte[] APP_ID = ascii("appId");
+    private static final byte[] EPOCH = ascii(JwtUtils.EPOCH_CLAIM);
+    private static final byte[] IAT = ascii("iat");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] NBF = ascii("nbf");
+
+    /**
+     * Base64URL 解码表，非法字符为-1
+     */
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    /**
+     * 按 kid 查找 HS256 密钥，kid 为null时返回原有的 jwt.secret 密钥，未知 kid 返回null
+     */
+    private final Function<String, Key> keyResolver;
+
+    private final ConcurrentLinkedQueue<Workspace> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    Hs256TokenCodec(Function<String, Key> keyResolver) {
+        this.keyResolver = keyResolver;
+    }
+
+    /**
+     * 校验签名并解析令牌声明
+     *
+     * @param token 令牌
+     * @param now   当前时间（毫秒时间戳）
+     * @return 已验签的令牌声明；签名错误、未知 kid 或已过期时返回null；需回退到 jjwt 时返回 {@link #UNSUPPORTED}
+     */
+    VerifiedToken decode(String token, long now) {
+        int first = token.indexOf('.');
+        int second = first > 0 ? token.indexOf('.', first + 1) : -1;
+        if (second < 0 || second == token.length() - 1 || token.indexOf('.', second + 1) >= 0) {
+            return UNSUPPORTED;
+        }
+        Workspace ws = acquire();
+        try {
+            return decode(token, now, first, second, ws);
+        } finally {
+            release(ws);
+        }
+    }
+
+    private VerifiedToken decode(String token, long now, int first, int second, Workspace ws) {
+        FlatJson json = ws.json;
+
+        // 头：只接受 {"alg":"HS256"} 和可选的 kid
+        int headerLength = decodeBase64Url(token, 0, first, ws.buffer(first));
+        if (headerLength < 0 || !json.begin(ws.buffer, headerLength)) {
+            return UNSUPPORTED;
+        }
+        boolean hs256 = false;
+        boolean algSeen = false;
+        String kid = null;
+        int state;
+        while ((state = json.next()) == FlatJson.FIELD) {
+            if (json.keyEquals(ALG)) {
+                if (algSeen) {
+                    return UNSUPPORTED;
+                }
+                algSeen = true;
+                hs256 = json.valueType == FlatJson.STRING && json.valueEquals(HS256);
+            } else if (json.keyEquals(KID)) {
+                if (json.valueType != FlatJson.STRING || kid != null) {
+                    return UNSUPPORTED;
+                }
+                kid = json.stringValue();
+            } else if (json.keyEquals(ZIP)) {
+                return UNSUPPORTED;
+            }
+        }
+        if (state != FlatJson.END || !hs256) {
+            return UNSUPPORTED;
+        }
+
+        // 签名：须为规范编码的 32 字节，未知 kid 与 jjwt 一样视为无效令牌
+        if (token.length() - second - 1 != SIGNATURE_CHARS
+                || decodeBase64Url(token, second + 1, token.length(), ws.signature) != SIGNATURE_LENGTH) {
+            return UNSUPPORTED;
+        }
+        Key key = keyResolver.apply(kid);
+        if (key == null || !verifySignature(ws, key, token, first, second)) {
+            return null;
+        }
+
+        // 载荷
+        int payloadLength = decodeBase64Url(token, first + 1, second, ws.buffer(second - first - 1));
+        if (payloadLength < 0 || !json.begin(ws.buffer, payloadLength)) {
+            return UNSUPPORTED;
+        }
+        Long userId = null;
+        String appId = null;
+        long epoch = 0L;
+        long issuedAt = 0L;
+        long expiresAt = -1L;
+        int seen = 0;
+        while ((state = json.next()) == FlatJson.FIELD) {
+            int field = payloadField(json);
+            if ((seen & field) != 0) {
+                return UNSUPPORTED;
+            }
+            seen |= field;
+            if (field == SEEN_USER_ID) {
+                if (json.valueType != FlatJson.NUMBER) {
+                    return UNSUPPORTED;
+                }
+                userId = json.number;
+            } else if (field == SEEN_APP_ID) {
+                if (json.valueType == FlatJson.STRING) {
+                    appId = ws.appId(json);
+                } else if (json.valueType == FlatJson.NUMBER) {
+                    appId = Long.toString(json.number);
+                } else if (json.valueType == FlatJson.NULL) {
+                    appId = null;
+                } else {
+                    return UNSUPPORTED;
+                }
+            } else if (field == SEEN_EPOCH) {
+                if (json.valueType != FlatJson.NUMBER) {
+                    return UNSUPPORTED;
+                }
+                epoch = json.number;
+            } else if (field == SEEN_IAT) {
+                if (json.valueType != FlatJson.NUMBER) {
+                    return UNSUPPORTED;
+                }
+                issuedAt = json.number * 1000L;
+            } else if (field == SEEN_EXP) {
+                if (json.valueType != FlatJson.NUMBER) {
+                    return UNSUPPORTED;
+                }
+                expiresAt = json.number * 1000L;
+            } else if (json.keyEquals(NBF)) {
+                return UNSUPPORTED;
+            }
+        }
+        // 未携带 exp 的令牌 jjwt 视为永不过期，是否接受由调用方决定
+        if (state != FlatJson.END || (seen & SEEN_EXP) == 0) {
+            return UNSUPPORTED;
+        }
+        if (expiresAt < now) {
+            return null;
+        }
+        return new VerifiedToken(token, userId, appId, issuedAt, expiresAt, epoch);
+    }
+
+    private Workspace acquire() {
+        Workspace ws = pool.poll();
+        if (ws == null) {
+            return new Workspace();
+        }
+        pooled.decrementAndGet();
+        return ws;
+    }
+
+    private void release(Workspace ws) {
+        if (ws.buffer.length > MAX_POOLED_BUFFER) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= MAX_POOLED) {
+            pool.offer(ws);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * 识别载荷中本解码器处理的字段
+     *
+     * @return 字段标记，其他字段返回0
+     */
+    private static int payloadField(FlatJson json) {
+        if (json.keyEquals(USER_ID)) {
+            return SEEN_USER_ID;
+        }
+        if (json.keyEquals(APP_ID)) {
+            return SEEN_APP_ID;
+        }
+        if (json.keyEquals(EPOCH)) {
+            return SEEN_EPOCH;
+        }
+        if (json.keyEquals(IAT)) {
+            return SEEN_IAT;
+        }
+        return json.keyEquals(EXP) ? SEEN_EXP : 0;
+    }
+
+    /**
+     * 计算 header.payload 的 HMAC 并与已解码的签名做定长比较
+     */
+    private static boolean verifySignature(Workspace ws, Key key, String token, int first, int second) {
+        byte[] input = ws.buffer(second);
+        for (int i = 0; i < second; i++) {
+            char c = token.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            input[i] = (byte) c;
+        }
+        Mac mac = ws.mac(key);
+        mac.update(input, 0, second);
+        try {
+            mac.doFinal(ws.expected, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HS256签名计算失败", e);
+        }
+        int diff = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            diff |= ws.expected[i] ^ ws.signature[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * 将 Base64URL（无填充）片段直接解码到目标数组
+     *
+     * @return 解码后的字节数，包含非法字符、末尾剩余位不为0（非规范编码）或目标数组不足时返回-1
+     */
+    private static int decodeBase64Url(String source, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1 || (length * 3) / 4 > out.length) {
+            return -1;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[written++] = (byte) (bits >> bitCount);
+            }
+        }
+        return (bits & ((1 << bitCount) - 1)) == 0 ? written : -1;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 解码状态，同一时刻只被一次解码使用
+     */
+    private static final class Workspace {
+
+        private final FlatJson json = new FlatJson();
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] signature = new byte[SIGNATURE_LENGTH + 2];
+        private byte[] buffer = new byte[512];
+        private Mac mac;
+        private Key macKey;
+        private byte[] appIdBytes = new byte[0];
+        private String appId;
+
+        /**
+         * 获取至少能容纳指定长度的缓冲区（解码结果不会超过输入长度）
+         */
+        private byte[] buffer(int length) {
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            return buffer;
+        }
+
+        /**
+         * 获取以指定密钥初始化的 Mac，密钥不变时直接复用
+         */
+        private Mac mac(Key key) {
+            if (mac == null) {
+                try {
+                    mac = Mac.getInstance(JCA_NAME);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("JVM不支持" + JCA_NAME, e);
+                }
+            }
+            if (macKey != key) {
+                try {
+                    mac.init(key);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("无效的HS256密钥", e);
+                }
+                macKey = key;
+            }
+            return mac;
+        }
+
+        /**
+         * 应用数量很少，与上一次的 appId 相同时复用同一个字符串
+         */
+        private String appId(FlatJson json) {
+            if (appId == null || !json.valueEquals(appIdBytes)) {
+                appIdBytes = Arrays.copyOfRange(json.buf, json.valueStart, json.valueEnd);
+                appId = new String(appIdBytes, StandardCharsets.UTF_8);
+            }
+            return appId;
+        }
+    }
+
+    /**
+     * 扁平 JSON 对象的逐字段读取器
+     * 只支持不含转义的字符串、整数和字面量，遇到其他结构返回 {@link #ERROR}
+     */
+    private static final class FlatJson {
+
+        static final int FIELD = 1;
+        static final int END = 0;
+        static final int ERROR = -1;
+
+        static final int STRING = 1;
+        static final int NUMBER = 2;
+        static final int NULL = 3;
+        static final int LITERAL = 4;
+
+        /**
+         * long 最多安全解析的十进制位数
+         */
+        private static final int MAX_DIGITS = 18;
+
+        private byte[] buf;
+        private int pos;
+        private int end;
+        private boolean first;
+
+        private int keyStart;
+        private int keyEnd;
+        private int valueType;
+        private int valueStart;
+        private int valueEnd;
+        private long number;
+
+        boolean begin(byte[] buf, int length) {
+            this.buf = buf;
+            this.pos = 0;
+            this.end = length;
+            this.first = true;
+            skipWhitespace();
+            if (pos >= end || buf[pos] != '{') {
+                return false;
+            }
+            pos++;
+            return true;
+        }
+
+        int next() {
+            skipWhitespace();
+            if (pos >= end) {
+                return ERROR;
+            }
+            if (buf[pos] == '}') {
+                pos++;
+                skipWhitespace();
+                return pos == end ? END : ERROR;
+            }
+            if (!first) {
+                if (buf[pos] != ',') {
+                    return ERROR;
+                }
+                pos++;
+                skipWhitespace();
+            }
+            first = false;
+            if (!readString()) {
+                return ERROR;
+            }
+            keyStart = valueStart;
+            keyEnd = valueEnd;
+            skipWhitespace();
+            if (pos >= end || buf[pos] != ':') {
+                return ERROR;
+            }
+            pos++;
+            skipWhitespace();
+            if (pos >= end) {
+                return ERROR;
+            }
+            byte c = buf[pos];
+            if (c == '"') {
+                valueType = STRING;
+                return readString() ? FIELD : ERROR;
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                valueType = NUMBER;
+                return readNumber() ? FIELD : ERROR;
+            }
+            if (readLiteral("null")) {
+                valueType = NULL;
+                return FIELD;
+            }
+            if (readLiteral("true") || readLiteral("false")) {
+                valueType = LITERAL;
+                return FIELD;
+            }
+            return ERROR;
+        }
+
+        boolean keyEquals(byte[] name) {
+            return rangeEquals(keyStart, keyEnd, name);
+        }
+
+        boolean valueEquals(byte[] value) {
+            return rangeEquals(valueStart, valueEnd, value);
+        }
+
+        String stringValue() {
+            return new String(buf, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+        }
+
+        private boolean rangeEquals(int from, int to, byte[] expected) {
+            if (to - from != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (buf[from + i] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean readString() {
+            if (pos >= end || buf[pos] != '"') {
+                return false;
+            }
+            int start = ++pos;
+            while (pos < end) {
+                byte c = buf[pos];
+                if (c == '"') {
+                    valueStart = start;
+                    valueEnd = pos++;
+                    return true;
+                }
+                if (c == '\\' || (c >= 0 && c < 0x20)) {
+                    return false;
+                }
+                pos++;
+            }
+            return false;
+        }
+
+        private boolean readNumber() {
+            boolean negative = buf[pos] == '-';
+            if (negative) {
+                pos++;
+            }
+            int start = pos;
+            long value = 0L;
+            while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                value = value * 10 + (buf[pos] - '0');
+                pos++;
+            }
+            int digits = pos - start;
+            if (digits == 0 || digits > MAX_DIGITS || (digits > 1 && buf[start] == '0')) {
+                return false;
+            }
+            if (pos < end && (buf[pos] == '.' || buf[pos] == 'e' || buf[pos] == 'E')) {
+                return false;
+            }
+            number = negative ? -value : value;
+            return true;
+        }
+
+        private boolean readLiteral(String literal) {
+            int length = literal.length();
+            if (end - pos < length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buf[pos + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += length;
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end) {
+                byte c = buf[pos];
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.ravey.ai.user.api.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JWT签名密钥
+ * 管理签发和验签使用的密钥：按 kid 索引的 HS256 密钥、原有的 jwt.secret，以及按 kid 索引的 ES256 密钥对。
+ * 启用 ES256 后新令牌使用私钥签发并携带 kid 头，公钥通过 JWKS 发布，下游服务可在本地验签；
+ * 不带 kid 的 HS256 令牌仍使用 jwt.secret 校验，保证切换期间已签发的令牌继续有效。
+ * <p>
+ * HS256 密钥（jwt.hmac.keys）可通过 Nacos 动态下发，配置变更后调用 {@link #reload()} 重新加载：
+ * 新令牌使用当前密钥签发，已签发的令牌只要其 kid 仍在配置中就继续有效，轮换密钥不会使用户集体掉线。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+public class JwtSigningKeys extends SigningKeyResolverAdapter {
+
+    /**
+     * P-256 坐标长度（字节）
+     */
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    /**
+     * HS256 密钥配置前缀，格式：jwt.hmac.keys.{kid}=Base64密钥
+     */
+    private static final String HMAC_KEYS_PROPERTY = "jwt.hmac.keys";
+
+    /**
+     * 当前 HS256 签发密钥的 kid，只配置了一个密钥时可不填，配置多个密钥时必填
+     */
+    private static final String HMAC_ACTIVE_KID_PROPERTY = "jwt.hmac.active-kid";
+
+    private final Environment environment;
+
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * JWT密钥（HS256）
+     */
+    @Value("${jwt.secret}")
+    private String secret;
+
+    /**
+     * 签发算法：HS256 或 ES256
+     */
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    /**
+     * 当前签发密钥的 kid
+     */
+    @Value("${jwt.signing.kid:}")
+    private String activeKid;
+
+    /**
+     * 当前签发私钥（PKCS#8，Base64）
+     */
+    @Value("${jwt.signing.ec.private-key:}")
+    private String ecPrivateKey;
+
+    /**
+     * 当前签发公钥（X.509，Base64）
+     */
+    @Value("${jwt.signing.ec.public-key:}")
+    private String ecPublicKey;
+
+    /**
+     * 已轮换下线但仍需验签的公钥，格式：kid1:Base64,kid2:Base64
+     */
+    @Value("${jwt.signing.ec.previous-public-keys:}")
+    private String previousPublicKeys;
+
+    private SignatureAlgorithm signatureAlgorithm;
+    private Key hmacKey;
+    private volatile HmacKeySet hmacKeySet = HmacKeySet.EMPTY;
+    private PrivateKey signingKey;
+    private Map<String, ECPublicKey> publicKeys = Collections.emptyMap();
+    private Map<String, Object> jwks;
+
+    public JwtSigningKeys(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init() {
+        hmacKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS256.getJcaName());
+        signatureAlgorithm = SignatureAlgorithm.forName(algorithm.trim().toUpperCase());
+
+        Map<String, ECPublicKey> keys = new LinkedHashMap<>();
+        if (signatureAlgorithm == SignatureAlgorithm.ES256) {
+            if (!StringUtils.hasText(activeKid) || !StringUtils.hasText(ecPrivateKey) || !StringUtils.hasText(ecPublicKey)) {
+                throw new IllegalStateException("启用ES256签名时必须配置 jwt.signing.kid、jwt.signing.ec.private-key 和 jwt.signing.ec.public-key");
+            }
+            signingKey = decodePrivateKey(ecPrivateKey);
+            keys.put(activeKid, decodePublicKey(ecPublicKey));
+        } else if (signatureAlgorithm != SignatureAlgorithm.HS256) {
+            throw new IllegalStateException("不支持的JWT签名算法: " + algorithm);
+        }
+        if (StringUtils.hasText(previousPublicKeys)) {
+            for (String item : previousPublicKeys.split(",")) {
+                int separator = item.indexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalStateException("jwt.signing.ec.previous-public-keys 格式错误: " + item);
+                }
+                keys.putIfAbsent(item.substring(0, separator).trim(), decodePublicKey(item.substring(separator + 1).trim()));
+            }
+        }
+        publicKeys = Collections.unmodifiableMap(keys);
+        jwks = buildJwks(publicKeys);
+        hmacKeySet = loadHmacKeySet();
+        log.info("JWT签名算法: {}, kid={}, 可验签公钥数: {}, HS256密钥: {}",
+                signatureAlgorithm, getActiveKid(), publicKeys.size(), hmacKeySet.keys.keySet());
+    }
+
+    /**
+     * 重新加载 HS256 密钥（配置中心推送变更后调用）
+     * 加载失败时保留原有密钥，避免错误配置导致全部令牌失效
+     */
+    public void reload() {
+        HmacKeySet previous = hmacKeySet;
+        HmacKeySet next;
+        try {
+            next = loadHmacKeySet();
+        } catch (RuntimeException e) {
+            log.error("重新加载JWT密钥失败，继续使用原有密钥", e);
+            return;
+        }
+        hmacKeySet = next;
+        log.info("重新加载JWT密钥: 当前kid={}, HS256密钥: {}", next.activeKid, next.keys.keySet());
+        if (!next.keys.keySet().containsAll(previous.keys.keySet())) {
+            // 有密钥下线时，已缓存的验签结果需要清除
+            reloadListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * 注册密钥下线时的回调（用于清除验签结果缓存）
+     *
+     * @param listener 回调
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * 是否使用非对称签名签发新令牌
+     *
+     * @return true-ES256
+     */
+    public boolean isAsymmetric() {
+        return signatureAlgorithm == SignatureAlgorithm.ES256;
+    }
+
+    /**
+     * 获取签发新令牌使用的 kid
+     *
+     * @return kid，使用 jwt.secret 签发时返回null
+     */
+    public String getActiveKid() {
+        return isAsymmetric() ? activeKid : hmacKeySet.activeKid;
+    }
+
+    /**
+     * 使用当前签发密钥签名，并写入对应的 kid 头
+     * kid 与密钥取自同一份快照，密钥重新加载期间也不会错配
+     *
+     * @param builder 令牌构建器
+     * @return 令牌构建器
+     */
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (isAsymmetric()) {
+            return builder.setHeaderParam(JwsHeader.KEY_ID, activeKid)
+                    .signWith(SignatureAlgorithm.ES256, signingKey);
+        }
+        HmacKeySet keySet = hmacKeySet;
+        if (keySet.activeKid == null) {
+            return builder.signWith(SignatureAlgorithm.HS256, hmacKey);
+        }
+        return builder.setHeaderParam(JwsHeader.KEY_ID, keySet.activeKid)
+                .signWith(SignatureAlgorithm.HS256, keySet.keys.get(keySet.activeKid));
+    }
+
+    /**
+     * 获取 JWKS（RFC 7517），仅包含公钥
+     *
+     * @return JWKS
+     */
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    /**
+     * 按令牌头选择验签密钥
+     * HS 系列算法只使用共享密钥，ES256 只使用 kid 对应的公钥，避免算法混淆
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        SignatureAlgorithm alg = SignatureAlgorithm.forName(header.getAlgorithm());
+        if (alg == SignatureAlgorithm.HS256) {
+            Key key = resolveHmacKey(header.getKeyId());
+            if (key == null) {
+                throw new SignatureException("未知的签名密钥: kid=" + header.getKeyId());
+            }
+            return key;
+        }
+        if (alg == SignatureAlgorithm.ES256) {
+            String kid = header.getKeyId();
+            ECPublicKey key = kid != null ? publicKeys.get(kid) : null;
+            if (key == null) {
+                throw new SignatureException("未知的签名密钥: kid=" + kid);
+            }
+            return key;
+        }
+        throw new SignatureException("不支持的签名算法: " + alg);
+    }
+
+    /**
+     * 按 kid 查找 HS256 验签密钥
+     *
+     * @param kid 令牌头中的 kid，为null时使用 jwt.secret
+     * @return 密钥，kid 未知时返回null
+     */
+    Key resolveHmacKey(String kid) {
+        return kid == null ? hmacKey : hmacKeySet.keys.get(kid);
+    }
+
+    /**
+     * 从配置读取并预先解码 HS256 密钥
+     * 密钥解码方式与 jwt.secret 一致，同一密钥值迁移到 kid 配置后签名结果不变
+     */
+    private HmacKeySet loadHmacKeySet() {
+        Map<String, String> configured = Binder.get(environment)
+                .bind(HMAC_KEYS_PROPERTY, Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap());
+        if (configured.isEmpty()) {
+            return HmacKeySet.EMPTY;
+        }
+        Map<String, SecretKey> keys = new HashMap<>(configured.size() * 2);
+        configured.forEach((kid, value) -> {
+            if (!StringUtils.hasText(value)) {
+                throw new IllegalStateException("JWT密钥为空: kid=" + kid);
+            }
+            keys.put(kid, new SecretKeySpec(TextCodec.BASE64.decode(value.trim()), SignatureAlgorithm.HS256.getJcaName()));
+        });
+        String active = environment.getProperty(HMAC_ACTIVE_KID_PROPERTY);
+        if (!StringUtils.hasText(active)) {
+            // kid 的字典序与密钥新旧无关，多个密钥时不猜测签发密钥
+            if (keys.size() > 1) {
+                throw new IllegalStateException("配置多个 jwt.hmac.keys 时必须指定 jwt.hmac.active-kid: " + keys.keySet());
+            }
+            active = keys.keySet().iterator().next();
+        } else if (!keys.containsKey(active)) {
+            throw new IllegalStateException("jwt.hmac.active-kid 不在 jwt.hmac.keys 中: " + active);
+        }
+        return new HmacKeySet(active, Collections.unmodifiableMap(keys));
+    }
+
+    private static PrivateKey decodePrivateKey(String base64) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(base64)));
+        } catch (Exception e) {
+            throw new IllegalStateException("无法解析ES256私钥", e);
+        }
+    }
+
+    private static ECPublicKey decodePublicKey(String base64) {
+        PublicKey key;
+        try {
+            key = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(Base64.getMimeDecoder().decode(base64)));
+        } catch (Exception e) {
+            throw new IllegalStateException("无法解析ES256公钥", e);
+        }
+        ECPublicKey ecKey = (ECPublicKey) key;
+        if (ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+            throw new IllegalStateException("ES256公钥必须使用P-256曲线");
+        }
+        return ecKey;
+    }
+
+    private static Map<String, Object> buildJwks(Map<String, ECPublicKey> keys) {
+        List<Map<String, Object>> list = new ArrayList<>(keys.size());
+        keys.forEach((kid, key) -> {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", SignatureAlgorithm.ES256.getValue());
+            jwk.put("kid", kid);
+            jwk.put("x", encodeCoordinate(key.getW().getAffineX()));
+            jwk.put("y", encodeCoordinate(key.getW().getAffineY()));
+            list.add(Collections.unmodifiableMap(jwk));
+        });
+        return Collections.singletonMap("keys", Collections.unmodifiableList(list));
+    }
+
+    /**
+     * 坐标按无符号大端定长编码为 Base64URL
+     */
+    private static String encodeCoordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[P256_COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, P256_COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, P256_COORDINATE_LENGTH - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    /**
+     * HS256 密钥快照（不可变，整体替换）
+     */
+    private static final class HmacKeySet {
+
+        private static final HmacKeySet EMPTY = new HmacKeySet(null, Collections.emptyMap());
+
+        private final String activeKid;
+        private final Map<String, SecretKey> keys;
+
+        private HmacKeySet(String activeKid, Map<String, SecretKey> keys) {
+            this.activeKid = activeKid;
+            this.keys = keys;
+        }
+    }
+}
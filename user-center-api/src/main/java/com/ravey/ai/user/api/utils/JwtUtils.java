@@ -1,14 +1,15 @@
 package com.ravey.ai.user.api.utils;
 
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,10 +25,15 @@ import java.util.Map;
 public class JwtUtils {
 
     /**
-     * JWT密钥
+     * 用户令牌版本声明
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String EPOCH_CLAIM = "ver";
+
+    /**
+     * JWT签名密钥（HS256 共享密钥或按 kid 索引的 ES256 密钥对）
+     */
+    @Resource
+    private JwtSigningKeys signingKeys;
 
     /**
      * JWT过期时间（秒）
@@ -35,6 +41,44 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    /**
+     * 验签结果缓存最大条目数
+     */
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    /**
+     * 验签结果缓存最长保留时间（秒），实际不超过令牌自身的过期时间
+     */
+    @Value("${jwt.cache.max-ttl:600}")
+    private long cacheMaxTtl;
+
+    /**
+     * 是否使用专用解码器校验 HS256 令牌，关闭后全部走 jjwt
+     */
+    @Value("${jwt.codec.fast-path:true}")
+    private boolean fastPathEnabled;
+
+    /**
+     * 验签结果缓存：令牌摘要 -> 已验签的令牌声明
+     */
+    private LocalCache<TokenDigest, VerifiedToken> tokenCache;
+
+    /**
+     * HS256 专用解码器，未启用时为null
+     */
+    private Hs256TokenCodec hs256Codec;
+
+    @PostConstruct
+    public void init() {
+        tokenCache = new LocalCache<>("jwt.verified-token", cacheMaxSize, cacheMaxTtl * 1000L);
+        if (fastPathEnabled) {
+            hs256Codec = new Hs256TokenCodec(signingKeys::resolveHmacKey);
+        }
+        // 签名密钥下线后，用该密钥签发的令牌不能再从缓存命中
+        signingKeys.addReloadListener(tokenCache::invalidateAll);
+    }
+
     /**
      * 生成JWT令牌
      *
@@ -43,19 +87,40 @@ public class JwtUtils {
      * @return JWT令牌
      */
     public String generateToken(Long userId, String appId) {
+        return generateToken(userId, appId, 0L);
+    }
+
+    /**
+     * 生成携带用户令牌版本的JWT令牌
+     *
+     * @param userId 用户ID
+     * @param appId  应用ID
+     * @param epoch  用户当前令牌版本
+     * @return JWT令牌
+     */
+    public String generateToken(Long userId, String appId, long epoch) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("appId", appId);
+        claims.put(EPOCH_CLAIM, epoch);
 
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration * 1000L);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims)
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS256, secret)
-                .compact();
+                .setExpiration(expiryDate);
+        return signingKeys.sign(builder).compact();
+    }
+
+    /**
+     * 获取访问令牌有效期
+     *
+     * @return 有效期（秒）
+     */
+    public long getExpiration() {
+        return expiration;
     }
 
     /**
@@ -80,31 +145,110 @@ public class JwtUtils {
     public Claims parseToken(String token) {
         try {
             return Jwts.parser()
-                    .setSigningKey(secret)
+                    .setSigningKeyResolver(signingKeys)
                     .parseClaimsJws(token)
                     .getBody();
         } catch (Exception e) {
-            log.error("解析JWT令牌失败: {}", e.getMessage());
+            log.debug("解析JWT令牌失败: {}", e.getMessage());
             throw new RuntimeException("无效的JWT令牌");
         }
     }
 
     /**
-     * 验证JWT令牌是否有效
+     * 校验JWT令牌并一次性解析出全部声明
+     * 签名校验和声明解析只执行一次，调用方应在整个请求中复用返回结果
      *
      * @param token JWT令牌
-     * @return 是否有效
+     * @return 已验签的令牌声明，令牌无效或已过期时返回null
      */
-    public boolean validateToken(String token) {
+    public VerifiedToken verifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        VerifiedToken cached = tokenCache.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            tokenCache.invalidate(digest);
+            return null;
+        }
+        VerifiedToken verified = parseVerifiedToken(token);
+        if (verified != null) {
+            long ttlMillis = Math.min(verified.getExpiresAt() - System.currentTimeMillis(), cacheMaxTtl * 1000L);
+            tokenCache.put(digest, verified, ttlMillis);
+        }
+        return verified;
+    }
+
+    /**
+     * 使令牌的验签缓存失效（登出、吊销时调用）
+     *
+     * @param token JWT令牌
+     */
+    public void invalidateToken(String token) {
+        if (token != null && !token.isEmpty()) {
+            tokenCache.invalidate(TokenDigest.of(token));
+        }
+    }
+
+    /**
+     * 获取验签结果缓存（用于监控命中率）
+     *
+     * @return 验签结果缓存
+     */
+    public LocalCache<TokenDigest, VerifiedToken> getTokenCache() {
+        return tokenCache;
+    }
+
+    /**
+     * 校验签名并解析令牌声明
+     * 本服务签发的 HS256 令牌由专用解码器处理，其余令牌（ES256 等）回退到 jjwt
+     *
+     * @param token JWT令牌
+     * @return 已验签的令牌声明，令牌无效或已过期时返回null
+     */
+    private VerifiedToken parseVerifiedToken(String token) {
+        if (hs256Codec != null) {
+            VerifiedToken decoded = hs256Codec.decode(token, System.currentTimeMillis());
+            if (decoded != Hs256TokenCodec.UNSUPPORTED) {
+                return decoded;
+            }
+        }
         try {
-            Claims claims = parseToken(token);
-            return claims != null && !isTokenExpired(claims);
+            Claims claims = Jwts.parser()
+                    .setSigningKeyResolver(signingKeys)
+                    .parseClaimsJws(token)
+                    .getBody();
+            if (claims == null || claims.getExpiration() == null || isTokenExpired(claims)) {
+                return null;
+            }
+            Date issuedAt = claims.getIssuedAt();
+            return new VerifiedToken(
+                    token,
+                    extractUserId(claims),
+                    extractAppId(claims),
+                    issuedAt != null ? issuedAt.getTime() : 0L,
+                    claims.getExpiration().getTime(),
+                    extractEpoch(claims));
         } catch (Exception e) {
-            log.error("验证JWT令牌失败", e);
-            return false;
+            log.debug("校验JWT令牌失败: {}", e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * 验证JWT令牌是否有效
+     * 与 {@link #verifyToken(String)} 共用验签缓存，无效令牌只返回false，不输出异常堆栈
+     *
+     * @param token JWT令牌
+     * @return 是否有效
+     */
+    public boolean validateToken(String token) {
+        return verifyToken(token) != null;
+    }
+
     /**
      * 检查令牌是否过期
      *
@@ -124,15 +268,7 @@ public class JwtUtils {
      */
     public Long getUserIdFromToken(String token) {
         Claims claims = parseToken(token);
-        if (claims != null) {
-            Object userId = claims.get("userId");
-            if (userId instanceof Integer) {
-                return ((Integer) userId).longValue();
-            } else if (userId instanceof Long) {
-                return (Long) userId;
-            }
-        }
-        return null;
+        return claims != null ? extractUserId(claims) : null;
     }
 
     /**
@@ -143,15 +279,47 @@ public class JwtUtils {
      */
     public String getAppIdFromToken(String token) {
         Claims claims = parseToken(token);
-        if (claims != null) {
-            Object appId = claims.get("appId");
-            if (appId != null) {
-                return appId.toString();
-            }
+        return claims != null ? extractAppId(claims) : null;
+    }
+
+    /**
+     * 从声明中提取用户ID
+     *
+     * @param claims 声明
+     * @return 用户ID
+     */
+    private Long extractUserId(Claims claims) {
+        Object userId = claims.get("userId");
+        if (userId instanceof Integer) {
+            return ((Integer) userId).longValue();
+        } else if (userId instanceof Long) {
+            return (Long) userId;
         }
         return null;
     }
 
+    /**
+     * 从声明中提取用户令牌版本，未携带时为0
+     *
+     * @param claims 声明
+     * @return 令牌版本
+     */
+    private long extractEpoch(Claims claims) {
+        Object epoch = claims.get(EPOCH_CLAIM);
+        return epoch instanceof Number ? ((Number) epoch).longValue() : 0L;
+    }
+
+    /**
+     * 从声明中提取应用ID
+     *
+     * @param claims 声明
+     * @return 应用ID
+     */
+    private String extractAppId(Claims claims) {
+        Object appId = claims.get("appId");
+        return appId != null ? appId.toString() : null;
+    }
+
     /**
      * 从令牌中获取应用ID（Long格式）
      *
@@ -218,18 +386,19 @@ public class JwtUtils {
     }
 
     /**
-     * 刷新令牌（生成新的令牌，保持相同的用户信息）
+     * 刷新令牌（生成新的令牌，保持相同的用户信息和令牌版本）
      *
      * @param token 原始令牌
      * @return 新的令牌
      */
     public String refreshToken(String token) {
         try {
-            Long userId = getUserIdFromToken(token);
-            String appId = getAppIdFromToken(token);
-            
+            Claims claims = parseToken(token);
+            Long userId = extractUserId(claims);
+            String appId = extractAppId(claims);
+
             if (userId != null && appId != null) {
-                return generateToken(userId, appId);
+                return generateToken(userId, appId, extractEpoch(claims));
             }
         } catch (Exception e) {
             log.error("刷新令牌失败", e);
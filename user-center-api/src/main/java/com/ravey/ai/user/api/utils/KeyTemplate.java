@@ -0,0 +1,143 @@
+package com.ravey.ai.user.api.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预解析的缓存键模板
+ * 模板中的 {} 为占位符，构造时一次性拆分为固定片段；生成键时按预估长度分配一个 StringBuilder 顺序拼接，
+ * 不使用正则，也不产生中间字符串。整数参数直接追加数字，不经过 String.valueOf。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public final class KeyTemplate {
+
+    private static final String PLACEHOLDER = "{}";
+
+    /**
+     * 单个参数的预估长度，用于预分配容量（令牌摘要为32位）
+     */
+    private static final int ESTIMATED_PARAM_LENGTH = 32;
+
+    private final String pattern;
+
+    /**
+     * 固定片段，数量为占位符数量加一
+     */
+    private final String[] segments;
+
+    private final int fixedLength;
+
+    private KeyTemplate(String pattern, String[] segments) {
+        this.pattern = pattern;
+        this.segments = segments;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * 解析缓存键模板
+     *
+     * @param pattern 模板，如 user:info:{}
+     * @return 缓存键模板
+     */
+    public static KeyTemplate compile(String pattern) {
+        List<String> segments = new ArrayList<>();
+        int from = 0;
+        int index;
+        while ((index = pattern.indexOf(PLACEHOLDER, from)) >= 0) {
+            segments.add(pattern.substring(from, index));
+            from = index + PLACEHOLDER.length();
+        }
+        segments.add(pattern.substring(from));
+        return new KeyTemplate(pattern, segments.toArray(new String[0]));
+    }
+
+    /**
+     * 占位符数量
+     *
+     * @return 参数个数
+     */
+    public int arity() {
+        return segments.length - 1;
+    }
+
+    /**
+     * 生成单参数缓存键
+     *
+     * @param param 参数
+     * @return 缓存键
+     */
+    public String format(Object param) {
+        checkArity(1);
+        StringBuilder builder = new StringBuilder(fixedLength + ESTIMATED_PARAM_LENGTH);
+        builder.append(segments[0]);
+        append(builder, param);
+        return builder.append(segments[1]).toString();
+    }
+
+    /**
+     * 生成双参数缓存键
+     *
+     * @param first  第一个参数
+     * @param second 第二个参数
+     * @return 缓存键
+     */
+    public String format(Object first, Object second) {
+        checkArity(2);
+        StringBuilder builder = new StringBuilder(fixedLength + 2 * ESTIMATED_PARAM_LENGTH);
+        builder.append(segments[0]);
+        append(builder, first);
+        builder.append(segments[1]);
+        append(builder, second);
+        return builder.append(segments[2]).toString();
+    }
+
+    /**
+     * 生成缓存键
+     * 参数少于占位符时，多余的占位符原样保留；参数多于占位符时忽略多余参数（与原 formatKey 行为一致）
+     *
+     * @param params 参数
+     * @return 缓存键
+     */
+    public String formatLenient(Object... params) {
+        StringBuilder builder = new StringBuilder(fixedLength + params.length * ESTIMATED_PARAM_LENGTH);
+        builder.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            if (i <= params.length) {
+                append(builder, params[i - 1]);
+            } else {
+                builder.append(PLACEHOLDER);
+            }
+            builder.append(segments[i]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private void checkArity(int count) {
+        if (segments.length - 1 != count) {
+            throw new IllegalArgumentException("缓存键模板 " + pattern + " 需要 " + arity() + " 个参数");
+        }
+    }
+
+    private static void append(StringBuilder builder, Object param) {
+        if (param instanceof Long) {
+            builder.append(((Long) param).longValue());
+        } else if (param instanceof Integer) {
+            builder.append(((Integer) param).intValue());
+        } else if (param instanceof String) {
+            builder.append((String) param);
+        } else {
+            builder.append(param);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.ravey.ai.user.api.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内本地缓存
+ * 按键哈希分段，每段为按访问顺序排列的 LinkedHashMap，支持条目级过期时间、容量上限（段内LRU淘汰）和命中率统计。
+ * 超出容量时淘汰段内最久未访问的条目，代价为O(1)；已过期条目在读取时删除，并由写入按固定间隔逐段清理。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author ravey
+ * @since 1.0.16
+ */
+public class LocalCache<K, V> {
+
+    /**
+     * 最大分段数
+     */
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * 过期条目清理间隔上下限（毫秒）
+     */
+    private static final long MIN_SWEEP_INTERVAL_MILLIS = 1000L;
+    private static final long MAX_SWEEP_INTERVAL_MILLIS = 60_000L;
+
+    private final String name;
+    private final long defaultTtlMillis;
+    private final long sweepIntervalMillis;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param name             缓存名称（用于监控）
+     * @param maximumSize      最大条目数
+     * @param defaultTtlMillis 默认过期时间（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    public LocalCache(String name, int maximumSize, long defaultTtlMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize必须大于0");
+        }
+        this.name = name;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.sweepIntervalMillis = Math.max(MIN_SWEEP_INTERVAL_MILLIS, Math.min(defaultTtlMillis, MAX_SWEEP_INTERVAL_MILLIS));
+        int count = Math.min(MAX_SEGMENTS, maximumSize);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // 各段容量之和等于最大条目数
+            segments[i] = new Segment<>(maximumSize / count + (i < maximumSize % count ? 1 : 0), evictionCount);
+        }
+    }
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 键
+     * @return 值，不存在或已过期时返回null
+     */
+    public V get(K key) {
+        if (key == null) {
+            missCount.increment();
+            return null;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        Entry<V> entry;
+        synchronized (segment) {
+            entry = segment.map.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                segment.map.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存（使用默认过期时间）
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put(K key, V value) {
+        put(key, value, defaultTtlMillis);
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key       键
+     * @param value     值
+     * @param ttlMillis 过期时间（毫秒），小于等于0时不写入
+     */
+    public void put(K key, V value, long ttlMillis) {
+        if (key == null || value == null || ttlMillis <= 0) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            segment.map.put(key, new Entry<>(value, now + ttlMillis));
+            if (now >= segment.nextSweepAt) {
+                segment.sweep(now);
+                segment.nextSweepAt = now + sweepIntervalMillis;
+            }
+        }
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 键
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.map.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+            }
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        return segments[Math.floorMod(h ^ (h >>> 16), segments.length)];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 获取命中率
+     *
+     * @return 命中率（0~1），尚无访问时返回0
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    /**
+     * 缓存分段，读写均持有段锁
+     */
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> map;
+        private final LongAdder evictionCount;
+        private long nextSweepAt;
+
+        private Segment(int capacity, LongAdder evictionCount) {
+            this.evictionCount = evictionCount;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * 清理本段已过期条目
+         */
+        private void sweep(long now) {
+            Iterator<Entry<V>> it = map.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt <= now) {
+                    it.remove();
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ravey.ai.user.api.utils;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 不透明会话令牌工具类
+ * 令牌为128位随机数的 Base64URL 编码（22个字符，不含 '.'），与 JWT 可按格式区分
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public final class OpaqueTokens {
+
+    /**
+     * 令牌随机字节数
+     */
+    private static final int TOKEN_BYTES = 16;
+
+    /**
+     * 令牌长度（Base64URL，无填充）
+     */
+    private static final int TOKEN_LENGTH = 22;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private OpaqueTokens() {
+    }
+
+    /**
+     * 生成不透明令牌
+     *
+     * @return 令牌
+     */
+    public static String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * 判断令牌是否为不透明令牌
+     *
+     * @param token 令牌
+     * @return true-不透明令牌，false-JWT或格式错误
+     */
+    public static boolean isOpaque(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
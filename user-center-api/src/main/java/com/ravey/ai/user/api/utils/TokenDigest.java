@@ -0,0 +1,112 @@
+package com.ravey.ai.user.api.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 令牌摘要
+ * 取令牌 SHA-256 摘要的前128位作为定长标识，用于缓存键，避免以完整令牌作为键长期驻留内存
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM不支持SHA-256", e);
+        }
+    });
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final long high;
+    private final long low;
+
+    private TokenDigest(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * 计算令牌摘要
+     *
+     * @param token 令牌
+     * @return 令牌摘要
+     */
+    public static TokenDigest of(String token) {
+        byte[] hash = sha256(token);
+        return new TokenDigest(readLong(hash, 0), readLong(hash, 8));
+    }
+
+    /**
+     * 从十六进制字符串还原令牌摘要（{@link #toString()} 的逆操作）
+     *
+     * @param hex 32位十六进制字符串
+     * @return 令牌摘要
+     */
+    public static TokenDigest fromString(String hex) {
+        if (hex == null || hex.length() != 32) {
+            throw new IllegalArgumentException("令牌摘要格式错误: " + hex);
+        }
+        return new TokenDigest(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                Long.parseUnsignedLong(hex.substring(16), 16));
+    }
+
+    /**
+     * 计算令牌的完整 SHA-256 摘要
+     *
+     * @param token 令牌
+     * @return 32字节摘要
+     */
+    public static byte[] sha256(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenDigest)) {
+            return false;
+        }
+        TokenDigest that = (TokenDigest) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (high ^ (high >>> 32));
+    }
+
+    /**
+     * 32位小写十六进制，与 MySQL 中 LEFT(SHA2(token, 256), 32) 的结果一致
+     */
+    @Override
+    public String toString() {
+        return HEX.toHexDigits(high) + HEX.toHexDigits(low);
+    }
+}
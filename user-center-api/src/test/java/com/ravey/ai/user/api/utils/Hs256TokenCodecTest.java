@@ -0,0 +1,268 @@
+package com.ravey.ai.user.api.utils;
+
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * HS256 令牌解码器与 jjwt 的一致性测试
+ * 解码器自行判定的令牌须与 jjwt 结果一致，其余令牌须返回 {@link Hs256TokenCodec#UNSUPPORTED} 交给 jjwt，
+ * 且开启与关闭专用解码器时 {@link JwtUtils#verifyToken} 的结果相同。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+class Hs256TokenCodecTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(bytes(32, 1));
+    private static final String KID_SECRET = Base64.getEncoder().encodeToString(bytes(32, 2));
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    private JwtSigningKeys signingKeys;
+    private Hs256TokenCodec codec;
+    private JwtUtils fastPath;
+    private JwtUtils jjwtOnly;
+
+    @BeforeEach
+    void setUp() {
+        signingKeys = hmacSigningKeys();
+        codec = new Hs256TokenCodec(signingKeys::resolveHmacKey);
+        fastPath = jwtUtils(signingKeys, true);
+        jjwtOnly = jwtUtils(signingKeys, false);
+    }
+
+    @Test
+    void decodesTokenWithoutKidLikeJjwt() {
+        String token = builder().signWith(SignatureAlgorithm.HS256, Base64.getDecoder().decode(SECRET)).compact();
+
+        VerifiedToken decoded = assertAgreesWithJjwt(token);
+        assertNotNull(decoded);
+        assertEquals(1001L, decoded.getUserId());
+        assertEquals("almond-web", decoded.getAppId());
+        assertEquals(7L, decoded.getEpoch());
+    }
+
+    @Test
+    void decodesTokenWithKidLikeJjwt() {
+        String token = signingKeys.sign(builder()).compact();
+
+        VerifiedToken decoded = assertAgreesWithJjwt(token);
+        assertNotNull(decoded);
+        assertEquals(1001L, decoded.getUserId());
+    }
+
+    @Test
+    void rejectsUnknownKidLikeJjwt() {
+        String token = builder().setHeaderParam(JwsHeader.KEY_ID, "retired")
+                .signWith(SignatureAlgorithm.HS256, Base64.getDecoder().decode(KID_SECRET)).compact();
+
+        assertNull(assertAgreesWithJjwt(token));
+    }
+
+    @Test
+    void fallsBackToJjwtForEs256() throws Exception {
+        JwtSigningKeys ecKeys = ecSigningKeys();
+        String token = ecKeys.sign(builder()).compact();
+
+        assertSame(Hs256TokenCodec.UNSUPPORTED, new Hs256TokenCodec(ecKeys::resolveHmacKey).decode(token, now()));
+        VerifiedToken verified = jwtUtils(ecKeys, true).verifyToken(token);
+        assertNotNull(verified);
+        assertEquals(1001L, verified.getUserId());
+    }
+
+    @Test
+    void rejectsTamperedSignatureLikeJjwt() {
+        String token = signingKeys.sign(builder()).compact();
+        int index = token.lastIndexOf('.') + 10;
+        String tampered = token.substring(0, index) + (token.charAt(index) == 'A' ? 'B' : 'A') + token.substring(index + 1);
+
+        assertNull(assertAgreesWithJjwt(tampered));
+    }
+
+    @Test
+    void rejectsTamperedPayloadLikeJjwt() {
+        String token = signingKeys.sign(builder()).compact();
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("1001", "1002");
+        String tampered = parts[0] + "." + base64Url(payload) + "." + parts[2];
+
+        assertNull(assertAgreesWithJjwt(tampered));
+    }
+
+    @Test
+    void rejectsExpiredTokenLikeJjwt() {
+        long past = now() - 60_000L;
+        String token = signingKeys.sign(builder().setIssuedAt(new Date(past - 60_000L)).setExpiration(new Date(past))).compact();
+
+        assertNull(assertAgreesWithJjwt(token));
+    }
+
+    @Test
+    void defersNonCanonicalSignatureToJjwt() {
+        String token = signingKeys.sign(builder()).compact();
+        char last = token.charAt(token.length() - 1);
+        // 签名末位只有 4 位有效，翻转最低位只改变填充位
+        String nonCanonical = token.substring(0, token.length() - 1) + ALPHABET.charAt(ALPHABET.indexOf(last) ^ 1);
+
+        assertSame(Hs256TokenCodec.UNSUPPORTED, assertAgreesWithJjwt(nonCanonical));
+    }
+
+    @Test
+    void defersTokenWithoutExpToJjwt() {
+        String token = sign("{\"alg\":\"HS256\"}", "{\"userId\":1001,\"appId\":\"almond-web\",\"ver\":7}");
+
+        assertSame(Hs256TokenCodec.UNSUPPORTED, assertAgreesWithJjwt(token));
+        // jjwt 接受不带 exp 的令牌，是否放行由 JwtUtils 决定：本服务要求令牌带过期时间
+        assertNotNull(jjwt(token));
+        assertNull(fastPath.verifyToken(token));
+    }
+
+    @Test
+    void defersDuplicateKeysToJjwt() {
+        long exp = now() / 1000L + 600L;
+        String duplicateClaim = sign("{\"alg\":\"HS256\"}",
+                "{\"userId\":1001,\"userId\":1002,\"exp\":" + exp + "}");
+        String duplicateKid = sign("{\"alg\":\"HS256\",\"kid\":\"k1\",\"kid\":\"k1\"}",
+                "{\"userId\":1001,\"exp\":" + exp + "}");
+
+        assertSame(Hs256TokenCodec.UNSUPPORTED, assertAgreesWithJjwt(duplicateClaim));
+        assertSame(Hs256TokenCodec.UNSUPPORTED, assertAgreesWithJjwt(duplicateKid));
+    }
+
+    /**
+     * 解码器自行判定时须与 jjwt 一致；无论是否回退，开启与关闭专用解码器的校验结果都须相同
+     */
+    private VerifiedToken assertAgreesWithJjwt(String token) {
+        VerifiedToken decoded = codec.decode(token, now());
+        if (decoded != Hs256TokenCodec.UNSUPPORTED) {
+            Claims claims = jjwt(token);
+            if (decoded == null) {
+                assertNull(claims);
+            } else {
+                assertNotNull(claims);
+                assertEquals(((Number) claims.get("userId")).longValue(), decoded.getUserId());
+                assertEquals(String.valueOf(claims.get("appId")), decoded.getAppId());
+                assertEquals(((Number) claims.get(JwtUtils.EPOCH_CLAIM)).longValue(), decoded.getEpoch());
+                assertEquals(claims.getIssuedAt().getTime(), decoded.getIssuedAt());
+                assertEquals(claims.getExpiration().getTime(), decoded.getExpiresAt());
+            }
+        }
+        VerifiedToken fast = fastPath.verifyToken(token);
+        VerifiedToken slow = jjwtOnly.verifyToken(token);
+        if (slow == null) {
+            assertNull(fast);
+        } else {
+            assertNotNull(fast);
+            assertEquals(slow.getUserId(), fast.getUserId());
+            assertEquals(slow.getAppId(), fast.getAppId());
+            assertEquals(slow.getEpoch(), fast.getEpoch());
+            assertEquals(slow.getExpiresAt(), fast.getExpiresAt());
+        }
+        return decoded;
+    }
+
+    private Claims jjwt(String token) {
+        try {
+            return Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(token).getBody();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static JwtBuilder builder() {
+        long now = now();
+        return Jwts.builder()
+                .claim("userId", 1001L)
+                .claim("appId", "almond-web")
+                .claim(JwtUtils.EPOCH_CLAIM, 7L)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 600_000L));
+    }
+
+    /**
+     * 按给定的头和载荷原文签名，用于构造 jjwt 构建器无法生成的令牌
+     */
+    private static String sign(String header, String payload) {
+        String input = base64Url(header) + "." + base64Url(payload);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(SECRET), "HmacSHA256"));
+            byte[] signature = mac.doFinal(input.getBytes(StandardCharsets.US_ASCII));
+            return input + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JwtSigningKeys hmacSigningKeys() {
+        JwtSigningKeys keys = new JwtSigningKeys(new MockEnvironment().withProperty("jwt.hmac.keys.k1", KID_SECRET));
+        ReflectionTestUtils.setField(keys, "secret", SECRET);
+        ReflectionTestUtils.setField(keys, "algorithm", "HS256");
+        keys.init();
+        return keys;
+    }
+
+    private static JwtSigningKeys ecSigningKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        JwtSigningKeys keys = new JwtSigningKeys(new MockEnvironment());
+        ReflectionTestUtils.setField(keys, "secret", SECRET);
+        ReflectionTestUtils.setField(keys, "algorithm", "ES256");
+        ReflectionTestUtils.setField(keys, "activeKid", "e1");
+        ReflectionTestUtils.setField(keys, "ecPrivateKey", Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        ReflectionTestUtils.setField(keys, "ecPublicKey", Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        keys.init();
+        return keys;
+    }
+
+    private static JwtUtils jwtUtils(JwtSigningKeys keys, boolean fastPathEnabled) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "signingKeys", keys);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 600L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100);
+        // 不缓存验签结果，每次都走解析
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxTtl", 0L);
+        ReflectionTestUtils.setField(jwtUtils, "fastPathEnabled", fastPathEnabled);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static String base64Url(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (seed * 31 + i);
+        }
+        return bytes;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+}
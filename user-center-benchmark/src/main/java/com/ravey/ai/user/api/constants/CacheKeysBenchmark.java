@@ -0,0 +1,77 @@
+package com.ravey.ai.user.api.constants;
+
+import com.ravey.ai.user.api.utils.TokenDigest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存键构造基准：原正则 formatKey、兼容保留的 formatKey 与 {@link CacheKeys} 类型化方法对比
+ * 每次调用生成一次鉴权请求常用的三类键（用户信息、会话、用户令牌反向缓存）
+ * 运行：java -jar user-center-benchmark/target/benchmarks.jar CacheKeysBenchmark -prof gc
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeysBenchmark {
+
+    private Long userId;
+    private String appId;
+    private TokenDigest digest;
+
+    @Setup
+    public void setUp() {
+        userId = 1001L;
+        appId = "almond-web";
+        digest = TokenDigest.of("eyJhbGciOiJIUzI1NiJ9.eyJ1c2VySWQiOjEwMDF9.benchmark");
+    }
+
+    /**
+     * 1.0.16 之前的实现：每个参数一次正则 replaceFirst
+     */
+    @Benchmark
+    public void regexFormatKey(Blackhole bh) {
+        bh.consume(regexFormat(CacheConstants.USER_INFO_KEY, userId));
+        bh.consume(regexFormat(CacheConstants.USER_SESSION_KEY, digest));
+        bh.consume(regexFormat(CacheConstants.USER_TOKEN_KEY, userId, appId));
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void cachedFormatKey(Blackhole bh) {
+        bh.consume(CacheConstants.formatKey(CacheConstants.USER_INFO_KEY, userId));
+        bh.consume(CacheConstants.formatKey(CacheConstants.USER_SESSION_KEY, digest));
+        bh.consume(CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId, appId));
+    }
+
+    @Benchmark
+    public void cacheKeys(Blackhole bh) {
+        bh.consume(CacheKeys.userInfo(userId));
+        bh.consume(CacheKeys.userSession(digest));
+        bh.consume(CacheKeys.userToken(userId, appId));
+    }
+
+    private static String regexFormat(String template, Object... params) {
+        String result = template;
+        for (Object param : params) {
+            result = result.replaceFirst("\\{\\}", String.valueOf(param));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ravey.ai.user.api.utils;
+
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HS256 令牌解码基准：专用解码器与 jjwt 通用解析对比
+ * 运行：mvn -pl user-center-benchmark -am package -DskipTests &amp;&amp;
+ * java -jar user-center-benchmark/target/benchmarks.jar Hs256TokenCodecBenchmark -prof gc
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Hs256TokenCodecBenchmark {
+
+    private JwtSigningKeys signingKeys;
+    private Hs256TokenCodec codec;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        signingKeys = JwtFixtures.signingKeys();
+        codec = new Hs256TokenCodec(signingKeys::resolveHmacKey);
+        token = JwtFixtures.jwtUtils(signingKeys, true, 0L)
+                .generateToken(JwtFixtures.USER_ID, JwtFixtures.APP_ID, JwtFixtures.EPOCH);
+        if (codec.decode(token, System.currentTimeMillis()) == Hs256TokenCodec.UNSUPPORTED) {
+            throw new IllegalStateException("基准令牌未走专用解码器");
+        }
+    }
+
+    @Benchmark
+    public VerifiedToken codec() {
+        return codec.decode(token, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public Claims jjwt() {
+        return Jwts.parser()
+                .setSigningKeyResolver(signingKeys)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ravey.ai.user.api.utils;
+
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HS256 令牌解码线程模型基准：模拟虚拟线程模式下每个请求都是新线程
+ * codecOnFreshThread 与 freshThread 之差即新线程上一次校验的代价，解码状态按线程缓存时其中包含 Mac 的创建和初始化；
+ * codecShared 为多个线程共用同一解码器时借还解码状态的开销。
+ * Java 21 运行时使用虚拟线程，更低版本退回平台线程。
+ * 运行：mvn -pl user-center-benchmark -am package -DskipTests &amp;&amp;
+ * java -jar user-center-benchmark/target/benchmarks.jar Hs256TokenCodecThreadBenchmark -prof gc
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Hs256TokenCodecThreadBenchmark {
+
+    /**
+     * Thread.startVirtualThread(Runnable)，Java 21 以下为null
+     */
+    private static final Method START_VIRTUAL_THREAD = startVirtualThreadMethod();
+
+    private Hs256TokenCodec codec;
+    private String token;
+
+    private volatile VerifiedToken result;
+
+    @Setup
+    public void setUp() {
+        JwtSigningKeys signingKeys = JwtFixtures.signingKeys();
+        codec = new Hs256TokenCodec(signingKeys::resolveHmacKey);
+        token = JwtFixtures.jwtUtils(signingKeys, true, 0L)
+                .generateToken(JwtFixtures.USER_ID, JwtFixtures.APP_ID, JwtFixtures.EPOCH);
+        if (codec.decode(token, System.currentTimeMillis()) == Hs256TokenCodec.UNSUPPORTED) {
+            throw new IllegalStateException("基准令牌未走专用解码器");
+        }
+    }
+
+    @Benchmark
+    public void freshThread() throws InterruptedException {
+        start(() -> result = null).join();
+    }
+
+    @Benchmark
+    public VerifiedToken codecOnFreshThread() throws InterruptedException {
+        start(() -> result = codec.decode(token, System.currentTimeMillis())).join();
+        return result;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public VerifiedToken codecShared() {
+        return codec.decode(token, System.currentTimeMillis());
+    }
+
+    private static Thread start(Runnable task) {
+        if (START_VIRTUAL_THREAD != null) {
+            try {
+                return (Thread) START_VIRTUAL_THREAD.invoke(null, task);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("启动虚拟线程失败", e);
+            }
+        }
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    private static Method startVirtualThreadMethod() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ravey.ai.user.api.utils;
+
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 基准测试使用的 JWT 组件
+ * 不启动 Spring 容器，按 application-*.yml 的默认值直接装配 {@link JwtSigningKeys} 和 {@link JwtUtils}
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+final class JwtFixtures {
+
+    /**
+     * HS256 共享密钥（Base64）
+     */
+    static final String SECRET = Base64.getEncoder().encodeToString(
+            "user-center-benchmark-hs256-secret".getBytes(StandardCharsets.UTF_8));
+
+    static final Long USER_ID = 1001L;
+    static final String APP_ID = "almond-web";
+    static final long EPOCH = 1760000000L;
+
+    private JwtFixtures() {
+    }
+
+    /**
+     * 只配置 jwt.secret 的 HS256 签名密钥，签发的令牌不带 kid
+     */
+    static JwtSigningKeys signingKeys() {
+        JwtSigningKeys keys = new JwtSigningKeys(new StandardEnvironment());
+        setField(keys, "secret", SECRET);
+        setField(keys, "algorithm", "HS256");
+        keys.init();
+        return keys;
+    }
+
+    /**
+     * @param keys           签名密钥
+     * @param fastPath       是否启用 HS256 专用解码器
+     * @param cacheMaxTtlSec 验签结果缓存时间（秒），0 表示不缓存
+     */
+    static JwtUtils jwtUtils(JwtSigningKeys keys, boolean fastPath, long cacheMaxTtlSec) {
+        JwtUtils jwtUtils = new JwtUtils();
+        setField(jwtUtils, "signingKeys", keys);
+        setField(jwtUtils, "expiration", 7200L);
+        setField(jwtUtils, "cacheMaxSize", 10000);
+        setField(jwtUtils, "cacheMaxTtl", cacheMaxTtlSec);
+        setField(jwtUtils, "fastPathEnabled", fastPath);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalStateException("字段不存在: " + target.getClass().getSimpleName() + "." + name);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ravey.ai.user.api.utils;
+
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 鉴权过滤器每请求解析令牌的开销：原先三次解析与一次 {@link JwtUtils#verifyToken} 对比
+ * 运行：java -jar user-center-benchmark/target/benchmarks.jar TokenParseBenchmark -prof gc
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenParseBenchmark {
+
+    private JwtUtils jjwtUncached;
+    private JwtUtils fastPathUncached;
+    private JwtUtils fastPathCached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtSigningKeys signingKeys = JwtFixtures.signingKeys();
+        jjwtUncached = JwtFixtures.jwtUtils(signingKeys, false, 0L);
+        fastPathUncached = JwtFixtures.jwtUtils(signingKeys, true, 0L);
+        fastPathCached = JwtFixtures.jwtUtils(signingKeys, true, 600L);
+        token = jjwtUncached.generateToken(JwtFixtures.USER_ID, JwtFixtures.APP_ID, JwtFixtures.EPOCH);
+    }
+
+    /**
+     * 原过滤器流程：validateToken、getUserIdFromToken、getAppIdFromToken 各自完整解析一次
+     */
+    @Benchmark
+    public void parseThreeTimes(Blackhole bh) {
+        bh.consume(jjwtUncached.parseToken(token));
+        bh.consume(jjwtUncached.getUserIdFromToken(token));
+        bh.consume(jjwtUncached.getAppIdFromToken(token));
+    }
+
+    /**
+     * 只解析一次，仍使用 jjwt，不命中验签缓存
+     */
+    @Benchmark
+    public VerifiedToken verifyOnceJjwt() {
+        return jjwtUncached.verifyToken(token);
+    }
+
+    /**
+     * 只解析一次，使用 HS256 专用解码器，不命中验签缓存
+     */
+    @Benchmark
+    public VerifiedToken verifyOnceFastPath() {
+        return fastPathUncached.verifyToken(token);
+    }
+
+    /**
+     * 稳定状态：同一令牌的后续请求命中验签缓存
+     */
+    @Benchmark
+    public VerifiedToken verifyOnceCached() {
+        return fastPathCached.verifyToken(token);
+    }
+}
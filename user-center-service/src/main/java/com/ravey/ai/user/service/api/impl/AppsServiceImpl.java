@@ -1,15 +1,22 @@
 package com.ravey.ai.user.service.api.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ravey.ai.user.api.enums.TokenMode;
+import com.ravey.ai.user.api.enums.UserErrorCode;
 import com.ravey.ai.user.api.model.req.AppCreateReq;
+import com.ravey.ai.user.api.model.req.AppUpdateReq;
 import com.ravey.ai.user.api.model.res.AppListRes;
 import com.ravey.ai.user.api.model.res.AppRes;
 import com.ravey.ai.user.api.service.AppsService;
+import com.ravey.ai.user.service.cache.CacheService;
+import com.ravey.ai.user.service.converter.AppsConverter;
 import com.ravey.ai.user.service.dao.entity.Apps;
 import com.ravey.ai.user.service.dao.mapper.AppsMapper;
+import com.ravey.common.api.model.ServiceException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,6 +32,7 @@ import java.util.stream.Collectors;
 public class AppsServiceImpl implements AppsService {
 
     private final AppsMapper appsMapper;
+    private final CacheService cacheService;
 
     @Override
     public AppRes createApp(AppCreateReq req) {
@@ -40,16 +48,53 @@ public class AppsServiceImpl implements AppsService {
         Apps app = new Apps();
         BeanUtils.copyProperties(req, app);
         app.setStatus(1); // 默认启用状态
+        app.setTokenMode(TokenMode.of(req.getTokenMode()).getCode());
 
         // 保存到数据库
         appsMapper.insert(app);
 
+        // 主动写入缓存，同时覆盖此前缓存的"应用不存在"结果
+        pushAppInfo(app);
+
         // 转换为响应DTO
         AppRes appRes = new AppRes();
         BeanUtils.copyProperties(app, appRes);
         return appRes;
     }
 
+    @Override
+    public AppRes updateApp(AppUpdateReq req) {
+        Apps app = appsMapper.selectOne(new LambdaQueryWrapper<Apps>().eq(Apps::getAppId, req.getAppId()));
+        if (app == null) {
+            throw new ServiceException(UserErrorCode.APP_NOT_FOUND);
+        }
+
+        // 只修改传入的字段
+        if (StringUtils.hasText(req.getAppName())) {
+            app.setAppName(req.getAppName());
+        }
+        if (StringUtils.hasText(req.getAppSecret())) {
+            app.setAppSecret(req.getAppSecret());
+        }
+        if (req.getDescription() != null) {
+            app.setDescription(req.getDescription());
+        }
+        if (req.getStatus() != null) {
+            app.setStatus(req.getStatus());
+        }
+        if (req.getTokenMode() != null) {
+            app.setTokenMode(TokenMode.of(req.getTokenMode()).getCode());
+        }
+        appsMapper.updateById(app);
+
+        // 主动推送到缓存，各节点不必等到缓存过期才读到新的密钥、状态和令牌模式
+        pushAppInfo(app);
+
+        AppRes appRes = new AppRes();
+        BeanUtils.copyProperties(app, appRes);
+        return appRes;
+    }
+
     @Override
     public AppListRes getAppList() {
         // 查询所有应用
@@ -70,4 +115,15 @@ public class AppsServiceImpl implements AppsService {
         appListRes.setTotal((long) appResList.size());
         return appListRes;
     }
-}
\ No newline at end of file
+
+    /**
+     * 将应用信息推送到缓存，已禁用的应用删除缓存（与回源时只查询启用应用一致）
+     */
+    private void pushAppInfo(Apps app) {
+        if (Integer.valueOf(1).equals(app.getStatus())) {
+            cacheService.cacheAppInfo(AppsConverter.toDTO(app));
+        } else {
+            cacheService.evictAppInfo(app.getAppId());
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.ravey.ai.user.api.dto.AppsDTO;
 import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.model.dto.QrLoginTokens;
 import com.ravey.ai.user.api.model.dto.WeChatSessionDto;
+import com.ravey.ai.user.api.model.req.LogoutReq;
 import com.ravey.ai.user.api.model.req.MiniProgramLoginReq;
 import com.ravey.ai.user.api.model.res.MiniProgramLoginRes;
 import com.ravey.ai.user.api.model.req.QrGenerateReq;
@@ -15,9 +17,18 @@ import com.ravey.ai.user.api.model.res.QrGenerateRes;
 import com.ravey.ai.user.api.model.res.QrCheckRes;
 import com.ravey.ai.user.api.model.req.WxaCodeReq;
 import com.ravey.ai.user.api.model.res.WxaCodeRes;
+import com.ravey.ai.user.api.model.req.TokenIntrospectReq;
+import com.ravey.ai.user.api.model.res.TokenIntrospectRes;
+import com.ravey.ai.user.api.model.req.TokenRefreshReq;
+import com.ravey.ai.user.api.model.res.TokenRefreshRes;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
 import com.ravey.ai.user.api.service.AuthService;
 import com.ravey.ai.user.service.cache.CacheService;
-import com.ravey.ai.user.api.utils.JwtUtils;
+import com.ravey.ai.user.service.cache.UserTokenEpochs;
+import com.ravey.ai.user.service.component.TokenIssuer;
+import com.ravey.ai.user.api.utils.OpaqueTokens;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import com.ravey.ai.user.service.converter.AppsConverter;
 import com.ravey.ai.user.service.converter.UsersConverter;
 import com.ravey.ai.user.service.dao.entity.Apps;
 import com.ravey.ai.user.service.dao.entity.UserApps;
@@ -34,6 +45,7 @@ import com.ravey.ai.user.api.enums.UserErrorCode;
 import com.ravey.common.api.model.ServiceException;
 import cn.binarywang.wx.miniapp.bean.WxMaUserInfo;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.Resource;
@@ -42,6 +54,9 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -57,10 +72,12 @@ public class AuthServiceImpl implements AuthService {
     @Resource
     private WeChatServiceImpl weChatService;
     @Resource
-    private JwtUtils jwtUtils;
-    @Resource
     private CacheService cacheService;
     @Resource
+    private UserTokenEpochs userTokenEpochs;
+    @Resource
+    private TokenIssuer tokenIssuer;
+    @Resource
     private AppsMapper appsMapper;
     @Resource
     private UsersMapper usersMapper;
@@ -71,6 +88,12 @@ public class AuthServiceImpl implements AuthService {
     @Resource
     private QrLoginRecordsMapper qrLoginRecordsMapper;
 
+    /**
+     * 批量校验令牌单次最大数量
+     */
+    @Value("${auth.introspect.max-batch:200}")
+    private int introspectMaxBatch;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public MiniProgramLoginRes miniProgramLogin(MiniProgramLoginReq req) {
@@ -119,14 +142,14 @@ public class AuthServiceImpl implements AuthService {
             // 3. 查找或创建用户
             Users user = findOrCreateUser(app.getId(), weChatSession, req.getUserInfo());
             
-            // 4. 生成访问令牌
-            String accessToken = generateAccessToken(user.getId(), app.getAppId());
+            // 4. 签发访问令牌和刷新令牌
+            TokenIssuer.IssuedTokens tokens = tokenIssuer.issue(user.getId(), app.getAppId());
             
             // 5. 创建用户会话
-            createAndCacheUserSession(user.getId(), app.getId(), accessToken);
+            createAndCacheUserSession(user.getId(), app.getId(), tokens.getAccessToken(), tokenIssuer.sessionExpireTime());
             
             // 6. 构建响应结果
-            MiniProgramLoginRes response = buildLoginResponse(user, accessToken);
+            MiniProgramLoginRes response = buildLoginResponse(user, tokens);
             
             log.info("小程序登录成功: appId={}, userId={}", req.getAppId(), user.getId());
             return response;
@@ -179,8 +202,13 @@ public class AuthServiceImpl implements AuthService {
 
         res.setStatus(record.getStatus());
         if (record.getStatus() != null && record.getStatus() == 2) {
-            String token = cacheService.getQrToken(record.getQrcodeId());
-            res.setToken(token);
+            QrLoginTokens tokens = cacheService.getQrTokens(record.getQrcodeId());
+            if (tokens != null) {
+                res.setToken(tokens.getAccessToken());
+                res.setExpiresIn(tokens.getExpiresIn());
+                res.setRefreshToken(tokens.getRefreshToken());
+                res.setRefreshExpiresIn(tokens.getRefreshExpiresIn());
+            }
             if (record.getUserId() != null) {
                 Users user = usersMapper.selectById(record.getUserId());
                 if (user != null) {
@@ -211,7 +239,7 @@ public class AuthServiceImpl implements AuthService {
             qrLoginRecordsMapper.updateById(record);
             throw new ServiceException(UserErrorCode.QR_CODE_EXPIRED);
         }
-        Long userId = UserContext.getCurrentUser() != null ? UserContext.getCurrentUser().getId() : null;
+        Long userId = UserContext.getCurrentUserId();
         if (userId == null) {
             throw new ServiceException(UserErrorCode.NOT_LOGGED_IN);
         }
@@ -236,7 +264,7 @@ public class AuthServiceImpl implements AuthService {
             qrLoginRecordsMapper.updateById(record);
             throw new ServiceException(UserErrorCode.QR_CODE_EXPIRED);
         }
-        Long userId = UserContext.getCurrentUser() != null ? UserContext.getCurrentUser().getId() : null;
+        Long userId = UserContext.getCurrentUserId();
         if (userId == null) {
             throw new ServiceException(UserErrorCode.NOT_LOGGED_IN);
         }
@@ -248,9 +276,15 @@ public class AuthServiceImpl implements AuthService {
         if (targetApp == null) {
             throw new ServiceException(UserErrorCode.APP_DISABLED);
         }
-        String accessToken = generateAccessToken(userId, targetApp.getAppId());
-        createAndCacheUserSession(userId, targetApp.getId(), accessToken);
-        cacheService.cacheQrToken(record.getQrcodeId(), accessToken);
+        // 与小程序登录一样签发刷新令牌，访问令牌过期后 Web 端无需重新扫码
+        TokenIssuer.IssuedTokens tokens = tokenIssuer.issue(userId, targetApp.getAppId());
+        createAndCacheUserSession(userId, targetApp.getId(), tokens.getAccessToken(), tokenIssuer.sessionExpireTime());
+        QrLoginTokens qrTokens = new QrLoginTokens();
+        qrTokens.setAccessToken(tokens.getAccessToken());
+        qrTokens.setExpiresIn(tokens.getExpiresIn());
+        qrTokens.setRefreshToken(tokens.getRefreshToken());
+        qrTokens.setRefreshExpiresIn(tokens.getRefreshExpiresIn());
+        cacheService.cacheQrTokens(record.getQrcodeId(), qrTokens);
     }
 
     @Override
@@ -296,6 +330,86 @@ public class AuthServiceImpl implements AuthService {
         return res;
     }
 
+    @Override
+    public TokenIntrospectRes introspectTokens(TokenIntrospectReq req) {
+        List<String> tokens = req != null ? req.getTokens() : null;
+        if (tokens == null || tokens.isEmpty() || tokens.size() > introspectMaxBatch) {
+            throw new ServiceException(UserErrorCode.PARAM_ERROR);
+        }
+
+        // 1. 本地验签（命中验签缓存时无需重新计算签名）；不透明令牌直接读取会话
+        List<TokenIntrospectRes.TokenResult> results = new ArrayList<>(tokens.size());
+        List<VerifiedToken> verifiedTokens = new ArrayList<>(tokens.size());
+        List<String> sessionTokens = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            VerifiedToken verified = cacheService.verifyToken(token);
+            TokenIntrospectRes.TokenResult result = new TokenIntrospectRes.TokenResult();
+            result.setActive(false);
+            result.setRevoked(false);
+            if (verified != null && verified.getUserId() != null) {
+                result.setUserId(verified.getUserId());
+                result.setAppId(verified.getAppId());
+                result.setExpiresAt(verified.getExpiresAt());
+                verifiedTokens.add(verified);
+                if (!OpaqueTokens.isOpaque(token)) {
+                    sessionTokens.add(token);
+                }
+            } else {
+                verifiedTokens.add(null);
+            }
+            results.add(result);
+        }
+
+        // 2. 验签通过的 JWT 一次性批量检查会话，不透明令牌的会话已在上一步读取
+        List<Long> sessionUserIds = sessionTokens.isEmpty()
+                ? Collections.emptyList() : cacheService.getSessionUserIds(sessionTokens);
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            VerifiedToken verified = verifiedTokens.get(i);
+            if (verified == null) {
+                continue;
+            }
+            boolean sessionActive = OpaqueTokens.isOpaque(verified.getToken())
+                    || verified.getUserId().equals(sessionUserIds.get(next++));
+            boolean active = sessionActive && userTokenEpochs.isCurrent(verified);
+            results.get(i).setActive(active);
+            results.get(i).setRevoked(!active);
+        }
+
+        log.debug("批量校验令牌: total={}, verified={}", tokens.size(), sessionTokens.size());
+        TokenIntrospectRes res = new TokenIntrospectRes();
+        res.setResults(results);
+        return res;
+    }
+
+    @Override
+    public TokenRefreshRes refreshToken(TokenRefreshReq req) {
+        TokenIssuer.IssuedTokens tokens = tokenIssuer.refresh(req != null ? req.getRefreshToken() : null);
+        TokenRefreshRes res = new TokenRefreshRes();
+        res.setToken(tokens.getAccessToken());
+        res.setExpiresIn(tokens.getExpiresIn());
+        res.setRefreshToken(tokens.getRefreshToken());
+        res.setRefreshExpiresIn(tokens.getRefreshExpiresIn());
+        return res;
+    }
+
+    @Override
+    public void logout(String token, LogoutReq req) {
+        if (token != null) {
+            cacheService.removeUserSession(token);
+        }
+        if (req != null && StringUtils.hasText(req.getRefreshToken())) {
+            cacheService.takeRefreshSession(TokenDigest.of(req.getRefreshToken()));
+        }
+        log.info("退出登录: userId={}", UserContext.getCurrentUserId());
+    }
+
+    @Override
+    public void revokeUserSessions(Long userId) {
+        cacheService.removeUserSessionByUserId(userId);
+        log.info("强制下线: userId={}", userId);
+    }
+
     /**
      * 获取微信会话信息
      */
@@ -322,21 +436,11 @@ public class AuthServiceImpl implements AuthService {
     }
 
     /**
-     * 生成访问令牌
+     * 创建并缓存用户会话（会话缓存已在签发令牌时写入）
      */
-    private String generateAccessToken(Long userId, String appId) {
-        return jwtUtils.generateToken(userId, appId);
-    }
-
-    /**
-     * 创建并缓存用户会话
-     */
-    private void createAndCacheUserSession(Long userId, Long appId, String accessToken) {
+    private void createAndCacheUserSession(Long userId, Long appId, String accessToken, LocalDateTime expireTime) {
         // 创建会话记录
-        createUserSession(userId, appId, accessToken);
-        
-        // 缓存会话信息
-        cacheUserSession(accessToken, userId);
+        createUserSession(userId, appId, accessToken, expireTime);
         
         // 缓存用户信息
         Users user = usersMapper.selectById(userId);
@@ -348,9 +452,12 @@ public class AuthServiceImpl implements AuthService {
     /**
      * 构建登录响应
      */
-    private MiniProgramLoginRes buildLoginResponse(Users user, String accessToken) {
+    private MiniProgramLoginRes buildLoginResponse(Users user, TokenIssuer.IssuedTokens tokens) {
         MiniProgramLoginRes response = new MiniProgramLoginRes();
-        response.setToken(accessToken);
+        response.setToken(tokens.getAccessToken());
+        response.setExpiresIn(tokens.getExpiresIn());
+        response.setRefreshToken(tokens.getRefreshToken());
+        response.setRefreshExpiresIn(tokens.getRefreshExpiresIn());
 
         MiniProgramLoginRes.UserInfo userInfo = new MiniProgramLoginRes.UserInfo();
         userInfo.setId(user.getId());
@@ -434,6 +541,10 @@ public class AuthServiceImpl implements AuthService {
         }
         user.setStatus(1);
         usersMapper.insert(user);
+        // 删除此前缓存的"用户不存在"结果
+        if (cacheService != null) {
+            cacheService.evictUserInfo(user.getId());
+        }
         
         log.info("创建新用户成功: userId={}", user.getId());
         return user;
@@ -494,12 +605,12 @@ public class AuthServiceImpl implements AuthService {
     /**
      * 创建用户会话记录
      */
-    private UserSessions createUserSession(Long userId, Long appId, String token) {
+    private UserSessions createUserSession(Long userId, Long appId, String token, LocalDateTime expireTime) {
         UserSessions session = new UserSessions();
         session.setUserId(userId);
         session.setAppId(appId);
-        session.setSessionToken(token);
-        session.setExpireTime(LocalDateTime.now().plusDays(1));
+        session.setTokenDigest(TokenDigest.of(token).toString());
+        session.setExpireTime(expireTime);
         userSessionsMapper.insert(session);
         
         log.debug("创建用户会话记录: userId={}, sessionId={}", userId, session.getId());
@@ -507,68 +618,30 @@ public class AuthServiceImpl implements AuthService {
     }
 
     /**
-     * 获取应用信息（优先从缓存获取）
+     * 获取应用信息（优先从缓存获取，未命中时同一应用同时只有一次回源）
      */
     private Apps getAppByAppId(String appId) {
-        // 先从缓存获取
-        AppsDTO appDto = getAppInfoFromCache(appId);
-        if (appDto != null) {
-            return convertDtoToEntity(appDto);
-        }
-        
-        // 从数据库查询
+        AppsDTO appDto = cacheService != null
+                ? cacheService.getAppInfo(appId, () -> loadAppInfo(appId))
+                : loadAppInfo(appId);
+        return AppsConverter.toEntity(appDto);
+    }
+
+    /**
+     * 从数据库查询应用信息
+     */
+    private AppsDTO loadAppInfo(String appId) {
         Apps app = appsMapper.selectOne(
                 new LambdaQueryWrapper<Apps>()
                         .eq(Apps::getAppId, appId)
                         .eq(Apps::getStatus, 1)
         );
-        
-        // 缓存应用信息
-        if (app != null) {
-            AppsDTO dto = convertEntityToDto(app);
-            cacheAppInfo(dto);
-        }
-        
-        return app;
-    }
-
-    /**
-     * 转换 DTO 为实体
-     */
-    private Apps convertDtoToEntity(AppsDTO dto) {
-        Apps app = new Apps();
-        app.setId(dto.getId());
-        app.setAppId(dto.getAppId());
-        app.setAppName(dto.getAppName());
-        app.setAppSecret(dto.getAppSecret());
-        app.setStatus(dto.getStatus());
-        return app;
-    }
-
-    /**
-     * 转换实体为 DTO
-     */
-    private AppsDTO convertEntityToDto(Apps app) {
-        AppsDTO dto = new AppsDTO();
-        dto.setId(app.getId());
-        dto.setAppId(app.getAppId());
-        dto.setAppName(app.getAppName());
-        dto.setAppSecret(app.getAppSecret());
-        dto.setStatus(app.getStatus());
-        return dto;
+        // 与其他回源处使用同一转换，缓存刷新前后字段一致
+        return AppsConverter.toDTO(app);
     }
 
     // ==================== 缓存相关方法 ====================
 
-    /**
-     * 缓存用户会话
-     */
-    private void cacheUserSession(String token, Long userId) {
-        if (cacheService != null) {
-            cacheService.cacheUserSession(token, userId);
-        }
-    }
-
     /**
      * 缓存用户信息
      */
@@ -577,23 +650,4 @@ public class AuthServiceImpl implements AuthService {
             cacheService.cacheUserInfo(userDto);
         }
     }
-
-    /**
-     * 从缓存获取应用信息
-     */
-    private AppsDTO getAppInfoFromCache(String appId) {
-        if (cacheService != null) {
-            return cacheService.getAppInfo(appId);
-        }
-        return null;
-    }
-
-    /**
-     * 缓存应用信息
-     */
-    private void cacheAppInfo(AppsDTO appDto) {
-        if (cacheService != null) {
-            cacheService.cacheAppInfo(appDto);
-        }
-    }
 }
@@ -5,9 +5,10 @@ import com.ravey.ai.user.api.dto.UsersDTO;
 import com.ravey.ai.user.api.model.req.*;
 import com.ravey.ai.user.api.model.res.LoginRes;
 import com.ravey.ai.user.api.service.UsersService;
-import com.ravey.ai.user.api.utils.JwtUtils;
+import com.ravey.ai.user.api.utils.TokenDigest;
 import com.ravey.ai.user.service.cache.CacheService;
 import com.ravey.ai.user.service.component.MailService;
+import com.ravey.ai.user.service.component.TokenIssuer;
 import com.ravey.ai.user.service.component.VerificationCodeService;
 import com.ravey.ai.user.service.converter.UsersConverter;
 import com.ravey.ai.user.service.dao.entity.UserSessions;
@@ -23,8 +24,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
-import java.time.LocalDateTime;
-
 /**
  * 用户服务实现类
  *
@@ -40,8 +39,8 @@ public class UsersServiceImpl implements UsersService {
     private final UserSessionsMapper userSessionsMapper;
     private final MailService mailService;
     private final VerificationCodeService verificationCodeService;
-    private final JwtUtils jwtUtils;
     private final CacheService cacheService;
+    private final TokenIssuer tokenIssuer;
 
     @Override
     public UsersDTO getById(Long userId) {
@@ -97,12 +96,15 @@ public class UsersServiceImpl implements UsersService {
             needUpdate = true;
         }
 
+        UsersDTO userDTO = UsersConverter.toDTO(user);
         if (needUpdate) {
             usersMapper.updateById(user);
+            // 刷新缓存并通知各节点丢弃旧的用户信息
+            cacheService.cacheUserInfo(userDTO);
             log.info("用户信息更新成功: userId={}", userId);
         }
 
-        return UsersConverter.toDTO(user);
+        return userDTO;
     }
 
     @Override
@@ -145,6 +147,8 @@ public class UsersServiceImpl implements UsersService {
         user.setNickname(StringUtils.hasText(req.getNickname()) ? req.getNickname() : "新用户");
         user.setStatus(1);
         usersMapper.insert(user);
+        // 删除此前缓存的"用户不存在"结果
+        cacheService.evictUserInfo(user.getId());
 
         // 4. 生成登录响应
         return buildLoginResponse(user);
@@ -194,6 +198,9 @@ public class UsersServiceImpl implements UsersService {
 
         user.setPassword(hashPassword(req.getNewPassword()));
         usersMapper.updateById(user);
+
+        // 吊销该用户此前签发的全部令牌
+        cacheService.removeUserSessionByUserId(user.getId());
     }
 
     private String hashPassword(String password) {
@@ -201,24 +208,26 @@ public class UsersServiceImpl implements UsersService {
     }
 
     private LoginRes buildLoginResponse(Users user) {
-        // 生成Token (这里假设 appId 为 'almond-web'，因为邮箱登录通常在Web端)
-        String token = jwtUtils.generateToken(user.getId(), "almond-web");
+        // 签发访问令牌和刷新令牌 (这里假设 appId 为 'almond-web'，因为邮箱登录通常在Web端)
+        TokenIssuer.IssuedTokens tokens = tokenIssuer.issue(user.getId(), "almond-web");
+        String token = tokens.getAccessToken();
 
         // 创建Session记录
         UserSessions session = new UserSessions();
         session.setUserId(user.getId());
-        session.setSessionToken(token);
-        session.setExpireTime(LocalDateTime.now().plusDays(7));
+        session.setTokenDigest(TokenDigest.of(token).toString());
+        session.setExpireTime(tokenIssuer.sessionExpireTime());
         userSessionsMapper.insert(session);
 
-        // 写入缓存
-        cacheService.cacheUserSession(token, user.getId());
+        // 写入缓存（会话缓存已在签发令牌时写入）
         cacheService.cacheUserInfo(UsersConverter.toDTO(user));
 
         // 构建响应
         LoginRes res = new LoginRes();
         res.setToken(token);
-        res.setExpiresIn(7 * 24 * 3600L);
+        res.setExpiresIn(tokens.getExpiresIn());
+        res.setRefreshToken(tokens.getRefreshToken());
+        res.setRefreshExpiresIn(tokens.getRefreshExpiresIn());
         LoginRes.UserInfo userInfo = new LoginRes.UserInfo();
         userInfo.setId(user.getId());
         userInfo.setNickname(user.getNickname());
@@ -227,4 +236,4 @@ public class UsersServiceImpl implements UsersService {
         res.setUserInfo(userInfo);
         return res;
     }
-}
\ No newline at end of file
+}
@@ -56,42 +56,48 @@ public class WeChatServiceImpl {
      */
     public String getMiniAppAccessToken(String appId) {
         try {
-            // 先从缓存获取
-            String cachedToken = cacheService.getMiniAppAccessToken(appId);
-            if (StringUtils.hasText(cachedToken)) {
-                log.debug("从缓存获取微信AccessToken: appId={}", appId);
-                return cachedToken;
-            }
+            // 缓存未命中时同一应用同时只有一次调用微信API
+            return cacheService.getMiniAppAccessToken(appId, () -> fetchMiniAppAccessToken(appId));
+        } catch (Exception e) {
+            log.error("获取微信AccessToken异常: appId={}", appId, e);
+            return null;
+        }
+    }
 
-            // 缓存中没有，调用微信API获取
-            log.info("从微信API获取AccessToken: appId={}", appId);
-            
-            // 根据appId查询应用信息
-            Apps app = getAppByAppId(appId);
-            if (app == null) {
-                log.error("应用不存在或已禁用: {}", appId);
-                return null;
-            }
+    /**
+     * 调用微信API获取 Access Token
+     *
+     * @param appId 应用ID
+     * @return Access Token，失败时返回null
+     */
+    private String fetchMiniAppAccessToken(String appId) {
+        log.info("从微信API获取AccessToken: appId={}", appId);
 
-            WxMaDefaultConfigImpl config = new WxMaDefaultConfigImpl();
-            config.setAppid(app.getAppId());
-            config.setSecret(app.getAppSecret());
-            WxMaService wxService = new WxMaServiceImpl();
-            wxService.setWxMaConfig(config);
-            String accessToken = wxService.getAccessToken();
-            if (StringUtils.hasText(accessToken)) {
-                cacheService.cacheMiniAppAccessToken(appId, accessToken);
-                log.info("获取微信AccessToken成功并缓存: appId={}", appId);
-                return accessToken;
-            } else {
-                log.error("获取微信AccessToken失败: appId={}", appId);
-                return null;
-            }
+        // 根据appId查询应用信息
+        Apps app = getAppByAppId(appId);
+        if (app == null) {
+            log.error("应用不存在或已禁用: {}", appId);
+            return null;
+        }
 
-        } catch (Exception e) {
-            log.error("获取微信AccessToken异常: appId={}", appId, e);
+        WxMaDefaultConfigImpl config = new WxMaDefaultConfigImpl();
+        config.setAppid(app.getAppId());
+        config.setSecret(app.getAppSecret());
+        WxMaService wxService = new WxMaServiceImpl();
+        wxService.setWxMaConfig(config);
+        String accessToken;
+        try {
+            accessToken = wxService.getAccessToken();
+        } catch (WxErrorException e) {
+            log.error("获取微信AccessToken失败: appId={}, error={}", appId, e.getMessage());
+            return null;
+        }
+        if (!StringUtils.hasText(accessToken)) {
+            log.error("获取微信AccessToken失败: appId={}", appId);
             return null;
         }
+        log.info("获取微信AccessToken成功并缓存: appId={}", appId);
+        return accessToken;
     }
 
     /**
@@ -180,34 +186,24 @@ public class WeChatServiceImpl {
     }
 
     /**
-     * 根据appId获取应用信息（优先从缓存获取）
+     * 根据appId获取应用信息（优先从缓存获取，未命中时同一应用同时只有一次回源）
      *
      * @param appId 应用ID
      * @return 应用信息
      */
     private Apps getAppByAppId(String appId) {
-        // 先从缓存获取
-        AppsDTO cachedApp = cacheService.getAppInfo(appId);
-        if (cachedApp != null) {
-            log.debug("从缓存获取应用信息: appId={}", appId);
-            // 转换API层AppsDTO为Service层Apps
-            return AppsConverter.toEntity(cachedApp);
-        }
-
-        // 缓存中没有，从数据库获取
-        Apps app = appsMapper.selectOne(
-                new LambdaQueryWrapper<Apps>()
-                        .eq(Apps::getAppId, appId)
-                        .eq(Apps::getStatus, 1)
-        );
-
-        if (app != null) {
-            // 缓存应用信息 - 转换Service层Apps为API层AppsDTO
-            cacheService.cacheAppInfo(AppsConverter.toDTO(app));
-            log.debug("从数据库获取应用信息并缓存: appId={}", appId);
-        }
-
-        return app;
+        AppsDTO app = cacheService.getAppInfo(appId, () -> {
+            Apps entity = appsMapper.selectOne(
+                    new LambdaQueryWrapper<Apps>()
+                            .eq(Apps::getAppId, appId)
+                            .eq(Apps::getStatus, 1)
+            );
+            log.debug("从数据库获取应用信息: appId={}, found={}", appId, entity != null);
+            // 转换Service层Apps为API层AppsDTO
+            return entity != null ? AppsConverter.toDTO(entity) : null;
+        });
+        // 转换API层AppsDTO为Service层Apps
+        return app != null ? AppsConverter.toEntity(app) : null;
     }
 
     /**
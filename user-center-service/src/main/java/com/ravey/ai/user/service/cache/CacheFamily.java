@@ -0,0 +1,93 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.constants.CacheConstants;
+
+/**
+ * 二级缓存的键族
+ * 每个键族可单独配置进程内一级缓存（cache.tier.{name}.l1-*）、远端二级缓存（cache.tier.{name}.l2-ttl）、
+ * 不存在结果的缓存时间（cache.tier.{name}.negative-ttl）和提前刷新时间（cache.tier.{name}.refresh-after）
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public enum CacheFamily {
+
+    /**
+     * 应用信息 app:info:{appId}
+     */
+    APP_INFO("app-info", CacheConstants.APP_INFO_EXPIRE, CacheConstants.NOT_FOUND_EXPIRE,
+            CacheConstants.APP_INFO_REFRESH_AFTER),
+
+    /**
+     * 用户信息 user:info:{userId}
+     */
+    USER_INFO("user-info", CacheConstants.USER_INFO_EXPIRE, CacheConstants.NOT_FOUND_EXPIRE, 0),
+
+    /**
+     * 用户会话 user:session:{tokenDigest}、user:opaque:{tokenDigest}
+     */
+    USER_SESSION("user-session", CacheConstants.USER_SESSION_EXPIRE, 0, 0),
+
+    /**
+     * 微信小程序 Access Token mini_app:access_token:{appId}
+     */
+    MINI_APP_ACCESS_TOKEN("mini-app-access-token", CacheConstants.MINI_APP_ACCESS_TOKEN_EXPIRE, 0, 0);
+
+    private final String configName;
+
+    private final long defaultL2Ttl;
+
+    private final long defaultNegativeTtl;
+
+    private final long defaultRefreshAfter;
+
+    CacheFamily(String configName, long defaultL2Ttl, long defaultNegativeTtl, long defaultRefreshAfter) {
+        this.configName = configName;
+        this.defaultL2Ttl = defaultL2Ttl;
+        this.defaultNegativeTtl = defaultNegativeTtl;
+        this.defaultRefreshAfter = defaultRefreshAfter;
+    }
+
+    /**
+     * 配置项名称，即 cache.tier 下的键
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * 默认二级缓存过期时间（秒）
+     */
+    public long getDefaultL2Ttl() {
+        return defaultL2Ttl;
+    }
+
+    /**
+     * 默认不存在结果缓存时间（秒），0 表示不缓存
+     */
+    public long getDefaultNegativeTtl() {
+        return defaultNegativeTtl;
+    }
+
+    /**
+     * 默认提前刷新时间（秒），0 表示不提前刷新
+     */
+    public long getDefaultRefreshAfter() {
+        return defaultRefreshAfter;
+    }
+
+    /**
+     * 根据枚举名获取键族
+     *
+     * @param name 枚举名
+     * @return 键族，无法识别时返回null
+     */
+    public static CacheFamily of(String name) {
+        for (CacheFamily family : values()) {
+            if (family.name().equals(name)) {
+                return family;
+            }
+        }
+        return null;
+    }
+}
@@ -1,14 +1,29 @@
 package com.ravey.ai.user.service.cache;
 
 import com.ravey.ai.user.api.constants.CacheConstants;
+import com.ravey.ai.user.api.constants.CacheKeys;
 import com.ravey.ai.user.api.dto.AppsDTO;
 import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.model.dto.OpaqueSession;
+import com.ravey.ai.user.api.model.dto.QrLoginTokens;
+import com.ravey.ai.user.api.model.dto.RefreshSession;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import com.ravey.ai.user.api.utils.JwtUtils;
+import com.ravey.ai.user.api.utils.OpaqueTokens;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import com.ravey.ai.user.service.event.publisher.CacheInvalidationPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 统一缓存服务
@@ -27,6 +42,24 @@ public class CacheService {
     @Qualifier("redisTemplate")
     private final RedisTemplate<Object, Object> redisTemplate;
 
+    private final JwtUtils jwtUtils;
+
+    private final NearCache nearCache;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private final TokenRevocationFilter tokenRevocationFilter;
+
+    private final UserTokenEpochs userTokenEpochs;
+
+    private final TwoLevelCache twoLevelCache;
+
+    /**
+     * 是否兼容读取以完整令牌为键的旧会话（升级后旧会话全部过期即可关闭）
+     */
+    @Value("${cache.session.legacy-key-fallback:true}")
+    private boolean legacySessionKeyFallback;
+
     /**
      * 设置缓存
      * 
@@ -56,9 +89,7 @@ public class CacheService {
      * @param accessToken Access Token
      */
     public void cacheMiniAppAccessToken(String appId, String accessToken) {
-        String key = CacheConstants.formatKey(CacheConstants.MINI_APP_ACCESS_TOKEN_KEY, appId);
-        redisTemplate.opsForValue().set(key, accessToken, CacheConstants.MINI_APP_ACCESS_TOKEN_EXPIRE,
-                TimeUnit.SECONDS);
+        twoLevelCache.put(CacheFamily.MINI_APP_ACCESS_TOKEN, CacheKeys.miniAppAccessToken(appId), accessToken);
         log.info("缓存微信小程序AccessToken: appId={}", appId);
     }
 
@@ -69,10 +100,22 @@ public class CacheService {
      * @return Access Token
      */
     public String getMiniAppAccessToken(String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.MINI_APP_ACCESS_TOKEN_KEY, appId);
-        Object token = redisTemplate.opsForValue().get(key);
+        String token = twoLevelCache.get(CacheFamily.MINI_APP_ACCESS_TOKEN, CacheKeys.miniAppAccessToken(appId),
+                String.class);
         log.debug("获取微信小程序AccessToken: appId={}, found={}", appId, token != null);
-        return token != null ? token.toString() : null;
+        return token;
+    }
+
+    /**
+     * 获取微信小程序 Access Token，缓存未命中时回源（同一应用同时只有一次回源）
+     *
+     * @param appId  应用ID
+     * @param loader 回源加载器，返回null时不缓存
+     * @return Access Token
+     */
+    public String getMiniAppAccessToken(String appId, Supplier<String> loader) {
+        return twoLevelCache.getOrLoad(CacheFamily.MINI_APP_ACCESS_TOKEN, CacheKeys.miniAppAccessToken(appId),
+                String.class, loader);
     }
 
     /**
@@ -81,8 +124,7 @@ public class CacheService {
      * @param app 应用信息
      */
     public void cacheAppInfo(AppsDTO app) {
-        String key = CacheConstants.formatKey(CacheConstants.APP_INFO_KEY, app.getAppId());
-        redisTemplate.opsForValue().set(key, app, CacheConstants.APP_INFO_EXPIRE, TimeUnit.SECONDS);
+        twoLevelCache.put(CacheFamily.APP_INFO, CacheKeys.appInfo(app.getAppId()), app);
         log.info("缓存应用信息: appId={}", app.getAppId());
     }
 
@@ -93,10 +135,30 @@ public class CacheService {
      * @return 应用信息
      */
     public AppsDTO getAppInfo(String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.APP_INFO_KEY, appId);
-        Object app = redisTemplate.opsForValue().get(key);
+        AppsDTO app = twoLevelCache.get(CacheFamily.APP_INFO, CacheKeys.appInfo(appId), AppsDTO.class);
         log.debug("获取应用信息: appId={}, found={}", appId, app != null);
-        return app instanceof AppsDTO ? (AppsDTO) app : null;
+        return app;
+    }
+
+    /**
+     * 获取应用信息，缓存未命中时回源（同一应用同时只有一次回源）
+     *
+     * @param appId  应用ID
+     * @param loader 回源加载器，返回null时不缓存
+     * @return 应用信息
+     */
+    public AppsDTO getAppInfo(String appId, Supplier<AppsDTO> loader) {
+        return twoLevelCache.getOrLoad(CacheFamily.APP_INFO, CacheKeys.appInfo(appId), AppsDTO.class, loader);
+    }
+
+    /**
+     * 删除应用信息缓存（包括不存在结果），应用创建或变更时调用
+     *
+     * @param appId 应用ID
+     */
+    public void evictAppInfo(String appId) {
+        twoLevelCache.evict(CacheFamily.APP_INFO, CacheKeys.appInfo(appId));
+        log.info("删除应用信息缓存: appId={}", appId);
     }
 
     /**
@@ -105,8 +167,8 @@ public class CacheService {
      * @param user 用户信息
      */
     public void cacheUserInfo(UsersDTO user) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_INFO_KEY, user.getId());
-        redisTemplate.opsForValue().set(key, user, CacheConstants.USER_INFO_EXPIRE, TimeUnit.SECONDS);
+        // 用户信息可能已变更，写入时同时通知其他节点丢弃旧的一级缓存
+        twoLevelCache.put(CacheFamily.USER_INFO, CacheKeys.userInfo(user.getId()), user);
         log.info("缓存用户信息: userId={}", user.getId());
     }
 
@@ -117,10 +179,30 @@ public class CacheService {
      * @return 用户信息
      */
     public UsersDTO getUserInfo(Long userId) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_INFO_KEY, userId);
-        Object user = redisTemplate.opsForValue().get(key);
+        UsersDTO user = twoLevelCache.get(CacheFamily.USER_INFO, CacheKeys.userInfo(userId), UsersDTO.class);
         log.debug("获取用户信息: userId={}, found={}", userId, user != null);
-        return user instanceof UsersDTO ? (UsersDTO) user : null;
+        return user;
+    }
+
+    /**
+     * 获取用户信息，缓存未命中时回源（同一用户同时只有一次回源）
+     *
+     * @param userId 用户ID
+     * @param loader 回源加载器，返回null时不缓存
+     * @return 用户信息
+     */
+    public UsersDTO getUserInfo(Long userId, Supplier<UsersDTO> loader) {
+        return twoLevelCache.getOrLoad(CacheFamily.USER_INFO, CacheKeys.userInfo(userId), UsersDTO.class, loader);
+    }
+
+    /**
+     * 删除用户信息缓存（包括不存在结果），用户创建时调用
+     *
+     * @param userId 用户ID
+     */
+    public void evictUserInfo(Long userId) {
+        twoLevelCache.evict(CacheFamily.USER_INFO, CacheKeys.userInfo(userId));
+        log.debug("删除用户信息缓存: userId={}", userId);
     }
 
     /**
@@ -130,19 +212,81 @@ public class CacheService {
      * @param userId 用户ID
      */
     public void cacheUserSession(String token, Long userId) {
-        // 双向缓存：token -> userId 和 userId -> token
-        String tokenKey = CacheConstants.formatKey(CacheConstants.USER_SESSION_KEY, token);
-        String userKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId);
+        // 双向缓存：令牌摘要 -> userId 和 userId -> 令牌摘要
+        TokenDigest digest = TokenDigest.of(token);
+        String tokenKey = sessionKey(digest);
+        String userKey = CacheKeys.userToken(userId);
+
+        // 缓存 token -> userId（以令牌摘要为键）
+        redisTemplate.opsForValue().set(tokenKey, userId, sessionExpire(), TimeUnit.SECONDS);
 
-        // 缓存 token -> userId
-        redisTemplate.opsForValue().set(tokenKey, userId, CacheConstants.USER_SESSION_EXPIRE, TimeUnit.SECONDS);
+        // 缓存 userId -> 令牌摘要（便于按用户吊销，令牌本身不落入 Redis）
+        redisTemplate.opsForValue().set(userKey, digest.toString(), sessionExpire(), TimeUnit.SECONDS);
 
-        // 缓存 userId -> token（便于后续查找和管理）
-        redisTemplate.opsForValue().set(userKey, token, CacheConstants.USER_SESSION_EXPIRE, TimeUnit.SECONDS);
+        nearCache.putSession(digest, userId);
 
         log.info("缓存用户会话（双向）: userId={}, token={}", userId, token.substring(0, 10) + "...");
     }
 
+    /**
+     * 缓存不透明令牌会话
+     * 会话以令牌摘要为键，反向缓存 userId -> 令牌摘要，令牌本身不落入 Redis
+     *
+     * @param token   不透明令牌
+     * @param session 会话声明
+     */
+    public void cacheOpaqueSession(String token, OpaqueSession session) {
+        TokenDigest digest = TokenDigest.of(token);
+        long expireSeconds = Math.max(1L, (session.getExpiresAt() - System.currentTimeMillis()) / 1000L);
+        String sessionKey = CacheKeys.opaqueSession(digest);
+        String userKey = CacheKeys.userToken(session.getUserId());
+        redisTemplate.opsForValue().set(sessionKey, session, expireSeconds, TimeUnit.SECONDS);
+        redisTemplate.opsForValue().set(userKey, digest.toString(), expireSeconds, TimeUnit.SECONDS);
+        nearCache.putOpaqueSession(digest, toVerifiedToken(token, session));
+        log.info("缓存不透明令牌会话: userId={}, appId={}", session.getUserId(), session.getAppId());
+    }
+
+    /**
+     * 校验令牌并获取声明
+     * 不透明令牌从会话存储读取（先查近端缓存），JWT 在本地验签
+     *
+     * @param token 令牌
+     * @return 令牌声明，令牌无效、会话不存在或已过期时返回null
+     */
+    public VerifiedToken verifyToken(String token) {
+        if (!OpaqueTokens.isOpaque(token)) {
+            return jwtUtils.verifyToken(token);
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        VerifiedToken cached = nearCache.getOpaqueSession(digest);
+        if (cached != null) {
+            return cached.isExpired() ? null : cached;
+        }
+        String key = CacheKeys.opaqueSession(digest);
+        Object value = redisTemplate.opsForValue().get(key);
+        twoLevelCache.recordRemote(CacheFamily.USER_SESSION, value != null);
+        log.debug("获取不透明令牌会话: found={}", value != null);
+        if (!(value instanceof OpaqueSession)) {
+            return null;
+        }
+        VerifiedToken session = toVerifiedToken(token, (OpaqueSession) value);
+        if (session.isExpired()) {
+            return null;
+        }
+        nearCache.putOpaqueSession(digest, session);
+        return session;
+    }
+
+    private static VerifiedToken toVerifiedToken(String token, OpaqueSession session) {
+        return new VerifiedToken(
+                token,
+                session.getUserId(),
+                session.getAppId(),
+                session.getIssuedAt() != null ? session.getIssuedAt() : 0L,
+                session.getExpiresAt() != null ? session.getExpiresAt() : 0L,
+                session.getEpoch() != null ? session.getEpoch() : 0L);
+    }
+
     /**
      * 获取用户会话信息
      *
@@ -150,23 +294,124 @@ public class CacheService {
      * @return 用户ID
      */
     public Long getUserSession(String token) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_SESSION_KEY, token);
-        Object userId = redisTemplate.opsForValue().get(key);
+        if (OpaqueTokens.isOpaque(token)) {
+            VerifiedToken session = verifyToken(token);
+            return session != null ? session.getUserId() : null;
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        Long nearUserId = nearCache.getSession(digest);
+        if (nearUserId != null) {
+            return nearUserId;
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(sessionKeys(token, digest));
+        Object userId = firstSessionValue(values, 0);
+        twoLevelCache.recordRemote(CacheFamily.USER_SESSION, userId != null);
         log.debug("获取用户会话: found={}", userId != null);
-        return userId instanceof Number ? ((Number) userId).longValue() : null;
+        if (userId instanceof Number) {
+            Long sessionUserId = ((Number) userId).longValue();
+            nearCache.putSession(digest, sessionUserId);
+            return sessionUserId;
+        }
+        return null;
+    }
+
+    /**
+     * 一次往返获取会话和用户信息
+     * 令牌已在本地验签，用户ID已知，因此会话键和用户信息键可通过一次 MGET 同时读取。
+     * 会话命中近端缓存时不访问 Redis，此时用户信息可能为null，由调用方按需加载
+     *
+     * @param token  JWT Token
+     * @param userId 令牌中的用户ID
+     * @return 会话及用户信息
+     */
+    public SessionProfile getSessionProfile(String token, Long userId) {
+        TokenDigest digest = TokenDigest.of(token);
+        Long nearUserId = nearCache.getSession(digest);
+        String userKey = CacheKeys.userInfo(userId);
+        if (nearUserId != null) {
+            return new SessionProfile(nearUserId, twoLevelCache.getLocal(CacheFamily.USER_INFO, userKey, UsersDTO.class));
+        }
+
+        List<Object> keys = new ArrayList<>(3);
+        keys.add(userKey);
+        keys.addAll(sessionKeys(token, digest));
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        Object userValue = values != null && values.size() > 0 ? values.get(0) : null;
+        Object sessionValue = firstSessionValue(values, 1);
+        twoLevelCache.recordRemote(CacheFamily.USER_SESSION, sessionValue != null);
+        twoLevelCache.recordRemote(CacheFamily.USER_INFO, userValue != null);
+        log.debug("获取用户会话及用户信息: userId={}, sessionFound={}, userFound={}",
+                userId, sessionValue != null, userValue != null);
+
+        Long sessionUserId = sessionValue instanceof Number ? ((Number) sessionValue).longValue() : null;
+        UsersDTO user = userValue instanceof UsersDTO ? (UsersDTO) userValue : null;
+        if (sessionUserId != null) {
+            nearCache.putSession(digest, sessionUserId);
+        }
+        if (user != null) {
+            twoLevelCache.putLocal(CacheFamily.USER_INFO, userKey, user);
+        }
+        return new SessionProfile(sessionUserId, user);
     }
 
     /**
-     * 根据用户ID获取Token（参考 new-retail-guide 设计）
+     * 批量获取会话对应的用户ID
+     * 先查近端缓存，未命中的令牌通过一次 multiGet 批量读取
+     *
+     * @param tokens JWT Token列表
+     * @return 与入参顺序一致的用户ID列表，会话不存在的位置为null
+     */
+    public List<Long> getSessionUserIds(List<String> tokens) {
+        Long[] userIds = new Long[tokens.size()];
+        TokenDigest[] digests = new TokenDigest[tokens.size()];
+        List<Integer> missIndexes = new ArrayList<>();
+        List<Object> missKeys = new ArrayList<>();
+        int keysPerToken = legacySessionKeyFallback ? 2 : 1;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            digests[i] = TokenDigest.of(token);
+            Long nearUserId = nearCache.getSession(digests[i]);
+            if (nearUserId != null) {
+                userIds[i] = nearUserId;
+            } else {
+                missIndexes.add(i);
+                missKeys.addAll(sessionKeys(token, digests[i]));
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            List<Object> values = redisTemplate.opsForValue().multiGet(missKeys);
+            for (int i = 0; i < missIndexes.size(); i++) {
+                Object value = firstSessionValue(values, i * keysPerToken);
+                twoLevelCache.recordRemote(CacheFamily.USER_SESSION, value != null);
+                if (value instanceof Number) {
+                    int index = missIndexes.get(i);
+                    userIds[index] = ((Number) value).longValue();
+                    nearCache.putSession(digests[index], userIds[index]);
+                }
+            }
+        }
+        log.debug("批量获取用户会话: total={}, redisLookups={}", tokens.size(), missKeys.size());
+        return Arrays.asList(userIds);
+    }
+
+    /**
+     * 根据用户ID获取最近一次会话的令牌摘要（参考 new-retail-guide 设计）
      *
      * @param userId 用户ID
-     * @return JWT Token
+     * @return 令牌摘要，不存在时返回null
+     */
+    public TokenDigest getUserTokenDigest(Long userId) {
+        String key = CacheKeys.userToken(userId);
+        Object value = redisTemplate.opsForValue().get(key);
+        log.debug("根据用户ID获取令牌摘要: userId={}, found={}", userId, value != null);
+        return value != null ? toTokenDigest(value.toString()) : null;
+    }
+
+    /**
+     * 反向缓存的值：摘要的十六进制形式；升级前写入的是完整令牌，读取时换算为摘要
      */
-    public String getUserToken(Long userId) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId);
-        Object token = redisTemplate.opsForValue().get(key);
-        log.debug("根据用户ID获取Token: userId={}, found={}", userId, token != null);
-        return token != null ? token.toString() : null;
+    private static TokenDigest toTokenDigest(String value) {
+        return value.length() == 32 ? TokenDigest.fromString(value) : TokenDigest.of(value);
     }
 
     /**
@@ -179,12 +424,12 @@ public class CacheService {
         Long userId = getUserSession(token);
 
         // 删除 token -> userId 缓存
-        String tokenKey = CacheConstants.formatKey(CacheConstants.USER_SESSION_KEY, token);
-        redisTemplate.delete(tokenKey);
+        redisTemplate.delete(sessionKeys(token, TokenDigest.of(token)));
+        revokeToken(token);
 
-        // 删除 userId -> token 缓存
+        // 删除 userId -> 令牌摘要缓存
         if (userId != null) {
-            String userKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId);
+            String userKey = CacheKeys.userToken(userId);
             redisTemplate.delete(userKey);
         }
 
@@ -193,25 +438,107 @@ public class CacheService {
 
     /**
      * 根据用户ID删除会话（参考 new-retail-guide 设计）
+     * 同时递增用户令牌版本，该用户此前签发的全部令牌都会失效，而不仅是反向缓存中记录的最后一个
      *
      * @param userId 用户ID
      */
     public void removeUserSessionByUserId(Long userId) {
-        // 先获取Token
-        String token = getUserToken(userId);
+        userTokenEpochs.bump(userId);
+
+        // 先获取令牌摘要
+        String userKey = CacheKeys.userToken(userId);
+        Object value = redisTemplate.opsForValue().get(userKey);
 
-        // 删除 userId -> token 缓存
-        String userKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId);
+        // 删除 userId -> 令牌摘要缓存
         redisTemplate.delete(userKey);
 
-        // 删除 token -> userId 缓存
-        if (token != null) {
-            String tokenKey = CacheConstants.formatKey(CacheConstants.USER_SESSION_KEY, token);
-            redisTemplate.delete(tokenKey);
+        // 按摘要删除会话；令牌已随版本递增失效，无需再登记吊销
+        TokenDigest digest = value != null ? toTokenDigest(value.toString()) : null;
+        if (digest != null) {
+            List<Object> keys = new ArrayList<>(3);
+            keys.add(sessionKey(digest));
+            keys.add(CacheKeys.opaqueSession(digest));
+            if (legacySessionKeyFallback && value.toString().length() != 32) {
+                keys.add(CacheKeys.legacyUserSession(value.toString()));
+            }
+            redisTemplate.delete(keys);
+            nearCache.invalidateSession(digest);
+            invalidationPublisher.publishSessionInvalidation(digest);
         }
 
-        log.info("根据用户ID删除会话（双向）: userId={}, token={}", userId,
-                token != null ? token.substring(0, 10) + "..." : "null");
+        log.info("根据用户ID删除会话（双向）: userId={}, found={}", userId, digest != null);
+    }
+
+    /**
+     * 会话缓存过期时间（秒），即 cache.tier.user-session.l2-ttl
+     */
+    private long sessionExpire() {
+        return twoLevelCache.settings(CacheFamily.USER_SESSION).getL2Ttl();
+    }
+
+    /**
+     * 会话缓存键，以令牌摘要代替完整令牌
+     *
+     * @param digest 令牌摘要
+     * @return 会话缓存键
+     */
+    private static String sessionKey(TokenDigest digest) {
+        return CacheKeys.userSession(digest);
+    }
+
+    /**
+     * 读取或删除会话时使用的键：摘要键，以及迁移期间仍需兼容的完整令牌键
+     *
+     * @param token  令牌
+     * @param digest 令牌摘要
+     * @return 会话缓存键列表，摘要键在前
+     */
+    private List<Object> sessionKeys(String token, TokenDigest digest) {
+        if (!legacySessionKeyFallback) {
+            return Collections.singletonList(sessionKey(digest));
+        }
+        return Arrays.asList(sessionKey(digest), CacheKeys.legacyUserSession(token));
+    }
+
+    /**
+     * 从 multiGet 结果中取会话值：优先摘要键，迁移期间再看完整令牌键
+     *
+     * @param values multiGet 结果
+     * @param offset 该令牌摘要键在结果中的位置
+     * @return 会话值，不存在时返回null
+     */
+    private Object firstSessionValue(List<Object> values, int offset) {
+        if (values == null) {
+            return null;
+        }
+        Object value = values.size() > offset ? values.get(offset) : null;
+        if (value == null && legacySessionKeyFallback && values.size() > offset + 1) {
+            value = values.get(offset + 1);
+        }
+        return value;
+    }
+
+    /**
+     * 吊销令牌：登记到吊销过滤器，清除验签缓存，并清除本节点及通知其他节点清除会话近端缓存
+     *
+     * @param token 令牌（JWT 或不透明令牌）
+     */
+    private void revokeToken(String token) {
+        TokenDigest digest = TokenDigest.of(token);
+        if (OpaqueTokens.isOpaque(token)) {
+            // 不透明令牌的会话即是令牌本身，删除会话即吊销
+            redisTemplate.delete(CacheKeys.opaqueSession(digest));
+            nearCache.invalidateSession(digest);
+            invalidationPublisher.publishSessionInvalidation(digest);
+            return;
+        }
+        VerifiedToken verifiedToken = jwtUtils.verifyToken(token);
+        if (verifiedToken != null) {
+            tokenRevocationFilter.revoke(digest, verifiedToken.getExpiresAt());
+        }
+        jwtUtils.invalidateToken(token);
+        nearCache.invalidateSession(digest);
+        invalidationPublisher.publishSessionInvalidation(digest);
     }
 
     /**
@@ -222,7 +549,7 @@ public class CacheService {
      * @param exists 是否存在关联
      */
     public void cacheUserApp(Long userId, String appId, boolean exists) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_APP_KEY, userId, appId);
+        String key = CacheKeys.userApp(userId, appId);
         redisTemplate.opsForValue().set(key, exists, CacheConstants.USER_APP_EXPIRE, TimeUnit.SECONDS);
         log.debug("缓存用户应用关联: userId={}, appId={}, exists={}", userId, appId, exists);
     }
@@ -235,7 +562,7 @@ public class CacheService {
      * @return 是否存在关联，null表示缓存中不存在
      */
     public Boolean getUserApp(Long userId, String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_APP_KEY, userId, appId);
+        String key = CacheKeys.userApp(userId, appId);
         Object exists = redisTemplate.opsForValue().get(key);
         log.debug("获取用户应用关联: userId={}, appId={}, found={}", userId, appId, exists != null);
         return exists instanceof Boolean ? (Boolean) exists : null;
@@ -249,7 +576,7 @@ public class CacheService {
      * @param used  是否已使用
      */
     public void cacheWeChatSession(String appId, String code, boolean used) {
-        String key = CacheConstants.formatKey(CacheConstants.WECHAT_SESSION_KEY, appId, code);
+        String key = CacheKeys.wechatSession(appId, code);
         redisTemplate.opsForValue().set(key, used, CacheConstants.WECHAT_SESSION_EXPIRE, TimeUnit.SECONDS);
         log.debug("缓存微信会话信息: appId={}, code={}, used={}", appId, code, used);
     }
@@ -262,7 +589,7 @@ public class CacheService {
      * @return 是否已使用，null表示缓存中不存在
      */
     public Boolean isWeChatCodeUsed(String appId, String code) {
-        String key = CacheConstants.formatKey(CacheConstants.WECHAT_SESSION_KEY, appId, code);
+        String key = CacheKeys.wechatSession(appId, code);
         Object used = redisTemplate.opsForValue().get(key);
         log.debug("检查微信授权码: appId={}, code={}, used={}", appId, code, used);
         return used instanceof Boolean ? (Boolean) used : null;
@@ -308,26 +635,72 @@ public class CacheService {
      * @param userId 用户ID
      */
     public void refreshUserSession(String token, Long userId) {
-        String tokenKey = CacheConstants.formatKey(CacheConstants.USER_SESSION_KEY, token);
-        String userKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId);
+        String tokenKey = sessionKey(TokenDigest.of(token));
+        String userKey = CacheKeys.userToken(userId);
 
         // 刷新两个缓存的过期时间
-        redisTemplate.expire(tokenKey, CacheConstants.USER_SESSION_EXPIRE, TimeUnit.SECONDS);
-        redisTemplate.expire(userKey, CacheConstants.USER_SESSION_EXPIRE, TimeUnit.SECONDS);
+        redisTemplate.expire(tokenKey, sessionExpire(), TimeUnit.SECONDS);
+        redisTemplate.expire(userKey, sessionExpire(), TimeUnit.SECONDS);
 
         log.debug("刷新用户会话过期时间: userId={}, token={}", userId, token.substring(0, 10) + "...");
     }
 
-    public void cacheQrToken(String qrcodeId, String token) {
-        String key = CacheConstants.formatKey(CacheConstants.QR_TOKEN_KEY, qrcodeId);
-        redisTemplate.opsForValue().set(key, token, CacheConstants.QR_TOKEN_EXPIRE, TimeUnit.SECONDS);
+    /**
+     * 缓存刷新令牌会话
+     *
+     * @param digest     刷新令牌摘要
+     * @param session    刷新令牌会话
+     * @param expireTime 过期时间（秒）
+     */
+    public void cacheRefreshSession(TokenDigest digest, RefreshSession session, long expireTime) {
+        String key = CacheKeys.refreshToken(digest);
+        redisTemplate.opsForValue().set(key, session, expireTime, TimeUnit.SECONDS);
+        log.debug("缓存刷新令牌会话: userId={}", session.getUserId());
+    }
+
+    /**
+     * 取出并删除刷新令牌会话（原子操作，保证刷新令牌只能使用一次）
+     *
+     * @param digest 刷新令牌摘要
+     * @return 刷新令牌会话，不存在或已被使用时返回null
+     */
+    public RefreshSession takeRefreshSession(TokenDigest digest) {
+        String key = CacheKeys.refreshToken(digest);
+        Object session = redisTemplate.opsForValue().getAndDelete(key);
+        return session instanceof RefreshSession ? (RefreshSession) session : null;
+    }
+
+    /**
+     * 缓存扫码登录签发的令牌，供 Web 端轮询取回
+     *
+     * @param qrcodeId 二维码ID
+     * @param tokens   访问令牌和刷新令牌
+     */
+    public void cacheQrTokens(String qrcodeId, QrLoginTokens tokens) {
+        String key = CacheKeys.qrToken(qrcodeId);
+        redisTemplate.opsForValue().set(key, tokens, CacheConstants.QR_TOKEN_EXPIRE, TimeUnit.SECONDS);
         log.debug("缓存二维码登录Token: qrcodeId={}", qrcodeId);
     }
 
-    public String getQrToken(String qrcodeId) {
-        String key = CacheConstants.formatKey(CacheConstants.QR_TOKEN_KEY, qrcodeId);
-        Object token = redisTemplate.opsForValue().get(key);
-        return token != null ? token.toString() : null;
+    /**
+     * 获取扫码登录签发的令牌
+     * 升级前写入的值只有访问令牌字符串，此时刷新令牌为空
+     *
+     * @param qrcodeId 二维码ID
+     * @return 令牌，不存在时返回null
+     */
+    public QrLoginTokens getQrTokens(String qrcodeId) {
+        String key = CacheKeys.qrToken(qrcodeId);
+        Object value = redisTemplate.opsForValue().get(key);
+        if (value instanceof QrLoginTokens) {
+            return (QrLoginTokens) value;
+        }
+        if (value == null) {
+            return null;
+        }
+        QrLoginTokens tokens = new QrLoginTokens();
+        tokens.setAccessToken(value.toString());
+        return tokens;
     }
 
     /**
@@ -337,7 +710,7 @@ public class CacheService {
      * @param bytes    图片字节
      */
     public void cacheWxaCode(String qrcodeId, byte[] bytes) {
-        String key = CacheConstants.formatKey(CacheConstants.WXA_CODE_KEY, qrcodeId);
+        String key = CacheKeys.wxaCode(qrcodeId);
         redisTemplate.opsForValue().set(key, bytes, CacheConstants.WXA_CODE_EXPIRE, TimeUnit.SECONDS);
         log.debug("缓存小程序码: qrcodeId={}", qrcodeId);
     }
@@ -349,7 +722,7 @@ public class CacheService {
      * @return 图片字节
      */
     public byte[] getWxaCode(String qrcodeId) {
-        String key = CacheConstants.formatKey(CacheConstants.WXA_CODE_KEY, qrcodeId);
+        String key = CacheKeys.wxaCode(qrcodeId);
         Object val = redisTemplate.opsForValue().get(key);
         return val instanceof byte[] ? (byte[]) val : null;
     }
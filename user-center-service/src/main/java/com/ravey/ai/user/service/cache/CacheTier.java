@@ -0,0 +1,80 @@
+package com.ravey.ai.user.service.cache;
+
+import java.util.List;
+
+/**
+ * 二级缓存存储
+ * 由 Redis（{@link RedisCacheTier}）或无 Redis 时的内存缓存（{@link MemoryCacheService}）实现，
+ * 两者签名一致，可在进程内一级缓存之后互换
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public interface CacheTier {
+
+    /**
+     * 获取缓存
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    Object get(String key);
+
+    /**
+     * 批量获取缓存
+     *
+     * @param keys 键列表
+     * @return 与入参顺序一致的值列表，不存在的位置为null
+     */
+    List<Object> multiGet(List<String> keys);
+
+    /**
+     * 设置缓存
+     *
+     * @param key     键
+     * @param value   值
+     * @param timeout 过期时间（秒）
+     */
+    void set(String key, Object value, long timeout);
+
+    /**
+     * 删除缓存
+     *
+     * @param key 键
+     */
+    void delete(String key);
+
+    /**
+     * 设置缓存过期时间
+     *
+     * @param key     键
+     * @param timeout 过期时间（秒）
+     */
+    void expire(String key, long timeout);
+
+    /**
+     * 获取缓存剩余过期时间
+     *
+     * @param key 键
+     * @return 剩余秒数；键不存在时返回-2，未设置过期时间时返回-1
+     */
+    long getExpire(String key);
+
+    /**
+     * 尝试加锁（键不存在时写入持有者标识）
+     *
+     * @param key           锁键
+     * @param owner         持有者标识
+     * @param timeoutMillis 锁自动过期时间（毫秒）
+     * @return 是否加锁成功
+     */
+    boolean tryLock(String key, String owner, long timeoutMillis);
+
+    /**
+     * 释放锁，仅当锁仍由该持有者持有时删除
+     *
+     * @param key   锁键
+     * @param owner 持有者标识
+     */
+    void unlock(String key, String owner);
+}
@@ -0,0 +1,442 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.dto.AppsDTO;
+import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.model.dto.OpaqueSession;
+import com.ravey.ai.user.api.model.dto.RefreshSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值紧凑二进制编码
+ * 对缓存中常见的类型（字符串、整数、布尔、字节数组及用户、应用、会话 DTO）手写编码，不写类名、不走反射：
+ * 格式为 [魔数][类型][载荷]，DTO 载荷首字节为该类型的编码版本。
+ * 在 DTO 末尾追加字段无需升级版本（旧版本读取时忽略多余字节），删除或调整字段时需升级版本；
+ * 读到未知版本时按缓存未命中处理。
+ * 其他类型以及不以魔数开头的旧数据交给原序列化器处理，因此新旧格式可以共存，
+ * 先全量发布（只读新格式），再开启 cache.codec.compact-write 写入新格式。
+ * 二级缓存的不存在占位值不依赖原序列化器，始终以专用类型字节编码。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+public class CompactValueSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 魔数，JSON 文本和 JDK 序列化均不会以该字节开头
+     */
+    static final byte MAGIC = (byte) 0xC7;
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_TRUE = 4;
+    private static final byte TYPE_FALSE = 5;
+    private static final byte TYPE_BYTES = 6;
+    private static final byte TYPE_BYTES_DEFLATED = 7;
+    private static final byte TYPE_NOT_FOUND = 8;
+    private static final byte TYPE_USERS = 16;
+    private static final byte TYPE_APPS = 17;
+    private static final byte TYPE_REFRESH_SESSION = 18;
+    private static final byte TYPE_OPAQUE_SESSION = 19;
+
+    private static final byte USERS_VERSION = 1;
+    private static final byte APPS_VERSION = 1;
+    private static final byte REFRESH_SESSION_VERSION = 1;
+    private static final byte OPAQUE_SESSION_VERSION = 1;
+
+    private static final byte[] TRUE_BYTES = {MAGIC, TYPE_TRUE};
+    private static final byte[] FALSE_BYTES = {MAGIC, TYPE_FALSE};
+    private static final byte[] NOT_FOUND_BYTES = {MAGIC, TYPE_NOT_FOUND};
+
+    private final RedisSerializer<Object> fallback;
+
+    private final boolean compactWrite;
+
+    private final int compressThreshold;
+
+    /**
+     * @param fallback          原序列化器，用于其他类型和旧格式数据
+     * @param compactWrite      是否以紧凑格式写入（关闭时只读取紧凑格式）
+     * @param compressThreshold 字节数组达到该长度时尝试压缩，小于等于0时不压缩
+     */
+    public CompactValueSerializer(RedisSerializer<Object> fallback, boolean compactWrite, int compressThreshold) {
+        this.fallback = fallback;
+        this.compactWrite = compactWrite;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == TwoLevelCache.NOT_FOUND) {
+            return NOT_FOUND_BYTES.clone();
+        }
+        if (!compactWrite || value == null) {
+            return fallback.serialize(value);
+        }
+        if (value instanceof String) {
+            byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = new byte[utf8.length + 2];
+            bytes[0] = MAGIC;
+            bytes[1] = TYPE_STRING;
+            System.arraycopy(utf8, 0, bytes, 2, utf8.length);
+            return bytes;
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? TRUE_BYTES.clone() : FALSE_BYTES.clone();
+        }
+        if (value instanceof Long) {
+            return new Output(12, TYPE_LONG).writeLong((Long) value).toByteArray();
+        }
+        if (value instanceof Integer) {
+            return new Output(7, TYPE_INTEGER).writeLong((Integer) value).toByteArray();
+        }
+        if (value instanceof byte[]) {
+            return serializeBytes((byte[]) value);
+        }
+        if (value instanceof UsersDTO) {
+            UsersDTO user = (UsersDTO) value;
+            return new Output(96, TYPE_USERS).writeByte(USERS_VERSION)
+                    .writeNullableLong(user.getId())
+                    .writeString(user.getUsername())
+                    .writeString(user.getNickname())
+                    .writeString(user.getAvatar())
+                    .writeString(user.getPhone())
+                    .writeString(user.getEmail())
+                    .writeNullableLong(toLong(user.getStatus()))
+                    .toByteArray();
+        }
+        if (value instanceof AppsDTO) {
+            AppsDTO app = (AppsDTO) value;
+            return new Output(128, TYPE_APPS).writeByte(APPS_VERSION)
+                    .writeNullableLong(app.getId())
+                    .writeString(app.getAppId())
+                    .writeString(app.getAppName())
+                    .writeString(app.getAppSecret())
+                    .writeString(app.getDescription())
+                    .writeNullableLong(toLong(app.getStatus()))
+                    .writeNullableLong(toLong(app.getTokenMode()))
+                    .toByteArray();
+        }
+        if (value instanceof RefreshSession) {
+            RefreshSession session = (RefreshSession) value;
+            return new Output(48, TYPE_REFRESH_SESSION).writeByte(REFRESH_SESSION_VERSION)
+                    .writeNullableLong(session.getUserId())
+                    .writeString(session.getAppId())
+                    .writeNullableLong(session.getEpoch())
+                    .writeNullableLong(session.getLoginAt())
+                    .toByteArray();
+        }
+        if (value instanceof OpaqueSession) {
+            OpaqueSession session = (OpaqueSession) value;
+            return new Output(56, TYPE_OPAQUE_SESSION).writeByte(OPAQUE_SESSION_VERSION)
+                    .writeNullableLong(session.getUserId())
+                    .writeString(session.getAppId())
+                    .writeNullableLong(session.getEpoch())
+                    .writeNullableLong(session.getIssuedAt())
+                    .writeNullableLong(session.getExpiresAt())
+                    .toByteArray();
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC || bytes.length < 2) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            return decode(bytes);
+        } catch (ArrayIndexOutOfBoundsException | DataFormatException e) {
+            throw new SerializationException("缓存值解码失败", e);
+        }
+    }
+
+    private Object decode(byte[] bytes) throws DataFormatException {
+        byte type = bytes[1];
+        switch (type) {
+            case TYPE_STRING:
+                return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_8);
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_LONG:
+                return new Input(bytes).readLong();
+            case TYPE_INTEGER:
+                return (int) new Input(bytes).readLong();
+            case TYPE_BYTES:
+                return Arrays.copyOfRange(bytes, 2, bytes.length);
+            case TYPE_BYTES_DEFLATED:
+                return inflate(bytes);
+            case TYPE_NOT_FOUND:
+                return TwoLevelCache.NOT_FOUND;
+            case TYPE_USERS:
+                return decodeUser(new Input(bytes));
+            case TYPE_APPS:
+                return decodeApp(new Input(bytes));
+            case TYPE_REFRESH_SESSION:
+                return decodeRefreshSession(new Input(bytes));
+            case TYPE_OPAQUE_SESSION:
+                return decodeOpaqueSession(new Input(bytes));
+            default:
+                log.warn("无法识别的缓存值类型: {}", type);
+                return null;
+        }
+    }
+
+    private static UsersDTO decodeUser(Input in) {
+        byte version = in.readByte();
+        if (version > USERS_VERSION) {
+            log.debug("用户信息缓存版本过新，按未命中处理: version={}", version);
+            return null;
+        }
+        UsersDTO user = new UsersDTO();
+        user.setId(in.readNullableLong());
+        user.setUsername(in.readString());
+        user.setNickname(in.readString());
+        user.setAvatar(in.readString());
+        user.setPhone(in.readString());
+        user.setEmail(in.readString());
+        user.setStatus(toInteger(in.readNullableLong()));
+        return user;
+    }
+
+    private static AppsDTO decodeApp(Input in) {
+        byte version = in.readByte();
+        if (version > APPS_VERSION) {
+            log.debug("应用信息缓存版本过新，按未命中处理: version={}", version);
+            return null;
+        }
+        AppsDTO app = new AppsDTO();
+        app.setId(in.readNullableLong());
+        app.setAppId(in.readString());
+        app.setAppName(in.readString());
+        app.setAppSecret(in.readString());
+        app.setDescription(in.readString());
+        app.setStatus(toInteger(in.readNullableLong()));
+        app.setTokenMode(toInteger(in.readNullableLong()));
+        return app;
+    }
+
+    private static RefreshSession decodeRefreshSession(Input in) {
+        byte version = in.readByte();
+        if (version > REFRESH_SESSION_VERSION) {
+            log.debug("刷新令牌会话缓存版本过新，按未命中处理: version={}", version);
+            return null;
+        }
+        RefreshSession session = new RefreshSession();
+        session.setUserId(in.readNullableLong());
+        session.setAppId(in.readString());
+        session.setEpoch(in.readNullableLong());
+        session.setLoginAt(in.readNullableLong());
+        return session;
+    }
+
+    private static OpaqueSession decodeOpaqueSession(Input in) {
+        byte version = in.readByte();
+        if (version > OPAQUE_SESSION_VERSION) {
+            log.debug("不透明令牌会话缓存版本过新，按未命中处理: version={}", version);
+            return null;
+        }
+        OpaqueSession session = new OpaqueSession();
+        session.setUserId(in.readNullableLong());
+        session.setAppId(in.readString());
+        session.setEpoch(in.readNullableLong());
+        session.setIssuedAt(in.readNullableLong());
+        session.setExpiresAt(in.readNullableLong());
+        return session;
+    }
+
+    /**
+     * 字节数组达到阈值时压缩（BEST_SPEED），压缩后不更小则原样保存；PNG、JPEG、GIF 图片本身已压缩，直接保存
+     */
+    private byte[] serializeBytes(byte[] value) {
+        if (compressThreshold > 0 && value.length >= compressThreshold && !isCompressedImage(value)) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(value);
+                deflater.finish();
+                Output out = new Output(value.length / 2 + 16, TYPE_BYTES_DEFLATED).writeLong(value.length);
+                byte[] chunk = new byte[8192];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(chunk);
+                    out.writeBytes(chunk, n);
+                }
+                byte[] deflated = out.toByteArray();
+                if (deflated.length < value.length + 2) {
+                    return deflated;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        byte[] bytes = new byte[value.length + 2];
+        bytes[0] = MAGIC;
+        bytes[1] = TYPE_BYTES;
+        System.arraycopy(value, 0, bytes, 2, value.length);
+        return bytes;
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        Input in = new Input(bytes);
+        int length = (int) in.readLong();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, in.position, bytes.length - in.position);
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int n = inflater.inflate(result, offset, length - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("压缩数据不完整");
+                }
+                offset += n;
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean isCompressedImage(byte[] value) {
+        if (value.length < 3) {
+            return false;
+        }
+        int b0 = value[0] & 0xFF;
+        int b1 = value[1] & 0xFF;
+        int b2 = value[2] & 0xFF;
+        return (b0 == 0x89 && b1 == 'P' && b2 == 'N')
+                || (b0 == 0xFF && b1 == 0xD8 && b2 == 0xFF)
+                || (b0 == 'G' && b1 == 'I' && b2 == 'F');
+    }
+
+    private static Long toLong(Integer value) {
+        return value != null ? value.longValue() : null;
+    }
+
+    private static Integer toInteger(Long value) {
+        return value != null ? value.intValue() : null;
+    }
+
+    /**
+     * 写缓冲区，整数使用 ZigZag 变长编码，字符串以（UTF-8 长度 + 1）为前缀，0 表示 null
+     */
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output(int capacity, byte type) {
+            super(capacity);
+            write(MAGIC);
+            write(type);
+        }
+
+        private Output writeByte(byte value) {
+            write(value);
+            return this;
+        }
+
+        private Output writeBytes(byte[] value, int length) {
+            write(value, 0, length);
+            return this;
+        }
+
+        private Output writeLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+            return this;
+        }
+
+        private Output writeNullableLong(Long value) {
+            if (value == null) {
+                write(0);
+            } else {
+                write(1);
+                writeLong(value);
+            }
+            return this;
+        }
+
+        private Output writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return this;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            write(utf8, 0, utf8.length);
+            return this;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    /**
+     * 读游标，从类型字节之后开始
+     */
+    private static final class Input {
+
+        private final byte[] bytes;
+
+        private int position = 2;
+
+        private Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private byte readByte() {
+            return bytes[position++];
+        }
+
+        private long readLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private Long readNullableLong() {
+            return readByte() == 0 ? null : readLong();
+        }
+
+        private String readString() {
+            long prefix = readVarLong();
+            if (prefix == 0) {
+                return null;
+            }
+            int length = (int) (prefix - 1);
+            if (length > bytes.length - position) {
+                throw new ArrayIndexOutOfBoundsException("字符串长度越界: " + length);
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new ArrayIndexOutOfBoundsException("变长整数过长");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.utils.TokenDigest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 令牌摘要布隆过滤器
+ * 令牌摘要本身是均匀分布的128位哈希，直接以高低64位做双重哈希生成各探测位，无需再次计算哈希。
+ * 只支持添加，不支持删除，过期条目通过整体重建清除。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+final class DigestBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预期条目数
+     * @param fpp                期望误判率
+     */
+    DigestBloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1L, expectedInsertions);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-n * Math.log(fpp) / (ln2 * ln2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (bits + 63) >>> 6));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bits / n * ln2));
+    }
+
+    /**
+     * 添加令牌摘要
+     *
+     * @param digest 令牌摘要
+     */
+    void put(TokenDigest digest) {
+        long combined = digest.getHigh();
+        long step = digest.getLow() | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = words.get(word)) & mask) == 0
+                    && !words.compareAndSet(word, current, current | mask)) {
+                // CAS 失败时重试
+            }
+            combined += step;
+        }
+    }
+
+    /**
+     * 判断令牌摘要是否可能存在
+     *
+     * @param digest 令牌摘要
+     * @return false-一定不存在，true-可能存在
+     */
+    boolean mightContain(TokenDigest digest) {
+        long combined = digest.getHigh();
+        long step = digest.getLow() | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+}
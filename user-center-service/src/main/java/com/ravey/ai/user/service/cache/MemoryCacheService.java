@@ -1,19 +1,27 @@
 package com.ravey.ai.user.service.cache;
 
 import com.ravey.ai.user.api.constants.CacheConstants;
+import com.ravey.ai.user.api.constants.CacheKeys;
 import com.ravey.ai.user.api.dto.AppsDTO;
 import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 内存缓存服务（用于测试环境）
- * 当 Redis 不可用时使用内存缓存
+ * 当 Redis 不可用时使用内存缓存，作为 {@link TwoLevelCache} 的二级缓存存储；
+ * 键、方法签名和过期时间与 {@link CacheService} 一致。
+ * 总权重（估算字节数）有上限，超出时按 LRU 淘汰，过期条目由时间轮每秒清理
  *
  * @author ravey
  * @since 1.0.0
@@ -21,16 +29,54 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Service
 @ConditionalOnMissingBean(RedisTemplate.class)
-public class MemoryCacheService {
+public class MemoryCacheService implements CacheTier {
 
-    private final ConcurrentHashMap<String, Object> cache = new ConcurrentHashMap<>();
+    /**
+     * 最大权重（估算字节数）
+     */
+    @Value("${cache.memory.max-weight:67108864}")
+    private long maxWeight;
+
+    private MemoryStore cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new MemoryStore(maxWeight);
+    }
+
+    /**
+     * 清理到期条目
+     */
+    @Scheduled(fixedDelay = MemoryStore.TICK_MILLIS)
+    public void expireEntries() {
+        cache.advance(System.currentTimeMillis());
+    }
+
+    @Override
+    public Object get(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public List<Object> multiGet(List<String> keys) {
+        List<Object> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(cache.get(key));
+        }
+        return values;
+    }
+
+    @Override
+    public void set(String key, Object value, long timeout) {
+        cache.put(key, value, TimeUnit.SECONDS.toMillis(timeout));
+    }
 
     /**
      * 缓存微信小程序 Access Token
      */
     public void cacheMiniAppAccessToken(String appId, String accessToken) {
-        String key = CacheConstants.formatKey(CacheConstants.MINI_APP_ACCESS_TOKEN_KEY, appId);
-        cache.put(key, accessToken);
+        String key = CacheKeys.miniAppAccessToken(appId);
+        set(key, accessToken, CacheConstants.MINI_APP_ACCESS_TOKEN_EXPIRE);
         log.info("缓存微信小程序AccessToken: appId={}", appId);
     }
 
@@ -38,7 +84,7 @@ public class MemoryCacheService {
      * 获取微信小程序 Access Token
      */
     public String getMiniAppAccessToken(String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.MINI_APP_ACCESS_TOKEN_KEY, appId);
+        String key = CacheKeys.miniAppAccessToken(appId);
         Object token = cache.get(key);
         log.debug("获取微信小程序AccessToken: appId={}, found={}", appId, token != null);
         return token instanceof String ? (String) token : null;
@@ -48,8 +94,8 @@ public class MemoryCacheService {
      * 缓存应用信息
      */
     public void cacheAppInfo(AppsDTO app) {
-        String key = CacheConstants.formatKey(CacheConstants.APP_INFO_KEY, app.getAppId());
-        cache.put(key, app);
+        String key = CacheKeys.appInfo(app.getAppId());
+        set(key, app, CacheConstants.APP_INFO_EXPIRE);
         log.info("缓存应用信息: appId={}", app.getAppId());
     }
 
@@ -57,7 +103,7 @@ public class MemoryCacheService {
      * 获取应用信息
      */
     public AppsDTO getAppInfo(String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.APP_INFO_KEY, appId);
+        String key = CacheKeys.appInfo(appId);
         Object app = cache.get(key);
         log.debug("获取应用信息: appId={}, found={}", appId, app != null);
         return app instanceof AppsDTO ? (AppsDTO) app : null;
@@ -67,8 +113,8 @@ public class MemoryCacheService {
      * 缓存用户信息
      */
     public void cacheUserInfo(UsersDTO user) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_INFO_KEY, user.getId());
-        cache.put(key, user);
+        String key = CacheKeys.userInfo(user.getId());
+        set(key, user, CacheConstants.USER_INFO_EXPIRE);
         log.info("缓存用户信息: userId={}", user.getId());
     }
 
@@ -76,84 +122,70 @@ public class MemoryCacheService {
      * 获取用户信息
      */
     public UsersDTO getUserInfo(Long userId) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_INFO_KEY, userId);
+        String key = CacheKeys.userInfo(userId);
         Object user = cache.get(key);
         log.debug("获取用户信息: userId={}, found={}", userId, user != null);
         return user instanceof UsersDTO ? (UsersDTO) user : null;
     }
 
     /**
-     * 缓存用户会话
+     * 缓存用户会话（双向：令牌摘要 -> userId，userId -> 令牌摘要）
      */
-    public void cacheUserSession(Long userId, String appId, String token) {
-        String userTokenKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId, appId != null ? appId : "default");
-        String tokenUserKey = CacheConstants.formatKey(CacheConstants.TOKEN_USER_KEY, token);
-        
-        cache.put(userTokenKey, token);
-        cache.put(tokenUserKey, userId + ":" + (appId != null ? appId : "default"));
-        
-        log.info("缓存用户会话: userId={}, appId={}, token={}", userId, appId, token);
+    public void cacheUserSession(String token, Long userId) {
+        TokenDigest digest = TokenDigest.of(token);
+        set(CacheKeys.userSession(digest), userId, CacheConstants.USER_SESSION_EXPIRE);
+        set(CacheKeys.userToken(userId), digest, CacheConstants.USER_SESSION_EXPIRE);
+        log.info("缓存用户会话: userId={}", userId);
     }
 
     /**
-     * 获取用户会话token
+     * 根据用户ID获取令牌摘要
      */
-    public String getUserToken(Long userId, String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId, appId != null ? appId : "default");
-        Object token = cache.get(key);
-        log.debug("获取用户token: userId={}, appId={}, found={}", userId, appId, token != null);
-        return token instanceof String ? (String) token : null;
+    public TokenDigest getUserTokenDigest(Long userId) {
+        Object digest = cache.get(CacheKeys.userToken(userId));
+        log.debug("获取用户令牌摘要: userId={}, found={}", userId, digest != null);
+        return digest instanceof TokenDigest ? (TokenDigest) digest : null;
     }
 
     /**
-     * 根据token获取用户信息
+     * 获取用户会话信息
      */
-    public String getUserSession(String token) {
-        String key = CacheConstants.formatKey(CacheConstants.TOKEN_USER_KEY, token);
-        Object userInfo = cache.get(key);
-        log.debug("根据token获取用户信息: token={}, found={}", token, userInfo != null);
-        return userInfo instanceof String ? (String) userInfo : null;
+    public Long getUserSession(String token) {
+        Object userId = cache.get(CacheKeys.userSession(TokenDigest.of(token)));
+        log.debug("获取用户会话: found={}", userId != null);
+        return userId instanceof Number ? ((Number) userId).longValue() : null;
     }
 
     /**
-     * 移除用户会话
+     * 删除用户会话（双向删除）
      */
     public void removeUserSession(String token) {
-        String tokenUserKey = CacheConstants.formatKey(CacheConstants.TOKEN_USER_KEY, token);
-        String userInfo = getUserSession(token);
-        
-        if (userInfo != null) {
-            String[] parts = userInfo.split(":");
-            if (parts.length == 2) {
-                String userTokenKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, parts[0], parts[1]);
-                cache.remove(userTokenKey);
-            }
+        Long userId = getUserSession(token);
+        cache.remove(CacheKeys.userSession(TokenDigest.of(token)));
+        if (userId != null) {
+            cache.remove(CacheKeys.userToken(userId));
         }
-        cache.remove(tokenUserKey);
-        log.info("移除用户会话: token={}", token);
+        log.info("删除用户会话: userId={}", userId);
     }
 
     /**
-     * 根据用户ID移除会话
+     * 根据用户ID删除会话
      */
-    public void removeUserSessionByUserId(Long userId, String appId) {
-        String userTokenKey = CacheConstants.formatKey(CacheConstants.USER_TOKEN_KEY, userId, appId != null ? appId : "default");
-        String token = getUserToken(userId, appId);
-        
-        if (token != null) {
-            String tokenUserKey = CacheConstants.formatKey(CacheConstants.TOKEN_USER_KEY, token);
-            cache.remove(tokenUserKey);
+    public void removeUserSessionByUserId(Long userId) {
+        TokenDigest digest = getUserTokenDigest(userId);
+        cache.remove(CacheKeys.userToken(userId));
+        if (digest != null) {
+            cache.remove(CacheKeys.userSession(digest));
         }
-        cache.remove(userTokenKey);
-        log.info("根据用户ID移除会话: userId={}, appId={}", userId, appId);
+        log.info("根据用户ID删除会话: userId={}", userId);
     }
 
     /**
      * 缓存用户应用关联信息
      */
     public void cacheUserApp(Long userId, String appId, boolean exists) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_APP_KEY, userId, appId);
-        cache.put(key, exists);
+        String key = CacheKeys.userApp(userId, appId);
+        set(key, exists, CacheConstants.USER_APP_EXPIRE);
         log.debug("缓存用户应用关联: userId={}, appId={}, exists={}", userId, appId, exists);
     }
 
@@ -161,7 +193,7 @@ public class MemoryCacheService {
      * 获取用户应用关联信息
      */
     public Boolean getUserApp(Long userId, String appId) {
-        String key = CacheConstants.formatKey(CacheConstants.USER_APP_KEY, userId, appId);
+        String key = CacheKeys.userApp(userId, appId);
         Object exists = cache.get(key);
         log.debug("获取用户应用关联: userId={}, appId={}, found={}", userId, appId, exists != null);
         return exists instanceof Boolean ? (Boolean) exists : null;
@@ -171,25 +203,25 @@ public class MemoryCacheService {
      * 缓存微信会话信息
      */
     public void cacheWeChatSession(String appId, String code, boolean used) {
-        String key = CacheConstants.formatKey(CacheConstants.WECHAT_CODE_KEY, appId, code);
-        cache.put(key, used);
+        String key = CacheKeys.wechatSession(appId, code);
+        set(key, used, CacheConstants.WECHAT_SESSION_EXPIRE);
         log.debug("缓存微信会话信息: appId={}, code={}, used={}", appId, code, used);
     }
 
     /**
      * 检查微信授权码是否已使用
      */
-    public boolean isWeChatCodeUsed(String appId, String code) {
-        String key = CacheConstants.formatKey(CacheConstants.WECHAT_CODE_KEY, appId, code);
+    public Boolean isWeChatCodeUsed(String appId, String code) {
+        String key = CacheKeys.wechatSession(appId, code);
         Object used = cache.get(key);
-        boolean isUsed = used instanceof Boolean ? (Boolean) used : false;
-        log.debug("检查微信授权码: appId={}, code={}, used={}", appId, code, isUsed);
-        return isUsed;
+        log.debug("检查微信授权码: appId={}, code={}, used={}", appId, code, used);
+        return used instanceof Boolean ? (Boolean) used : null;
     }
 
     /**
      * 删除缓存
      */
+    @Override
     public void delete(String key) {
         cache.remove(key);
         log.debug("删除缓存: key={}", key);
@@ -204,24 +236,69 @@ public class MemoryCacheService {
         return exists;
     }
 
+    @Override
+    public void expire(String key, long timeout) {
+        expire(key, timeout, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long getExpire(String key) {
+        long ttl = cache.ttl(key);
+        return ttl > 0 ? TimeUnit.MILLISECONDS.toSeconds(ttl) : ttl;
+    }
+
     /**
-     * 设置缓存过期时间（内存缓存暂不支持过期时间）
+     * 设置缓存过期时间
      */
     public void expire(String key, long timeout, TimeUnit unit) {
-        log.debug("内存缓存不支持过期时间设置: key={}", key);
+        boolean exists = cache.expire(key, unit.toMillis(timeout));
+        log.debug("设置缓存过期时间: key={}, timeout={}, unit={}, exists={}", key, timeout, unit, exists);
     }
 
-    /**
-     * 刷新用户会话过期时间（内存缓存暂不支持）
-     */
-    public void refreshUserSession(String token) {
-        log.debug("内存缓存不支持刷新会话过期时间: token={}", token);
+    @Override
+    public boolean tryLock(String key, String owner, long timeoutMillis) {
+        return cache.putIfAbsent(key, owner, timeoutMillis);
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        cache.remove(key, owner);
     }
 
     /**
-     * 设置过期时间（内存缓存暂不支持）
+     * 刷新用户会话过期时间
      */
-    public void setExpiration(String key, long timeout, TimeUnit unit) {
-        log.debug("内存缓存不支持设置过期时间: key={}", key);
+    public void refreshUserSession(String token, Long userId) {
+        cache.expire(CacheKeys.userSession(TokenDigest.of(token)), TimeUnit.SECONDS.toMillis(CacheConstants.USER_SESSION_EXPIRE));
+        cache.expire(CacheKeys.userToken(userId), TimeUnit.SECONDS.toMillis(CacheConstants.USER_SESSION_EXPIRE));
+        log.debug("刷新用户会话过期时间: userId={}", userId);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getWeight() {
+        return cache.weight();
+    }
+
+    public long getMaximumWeight() {
+        return cache.getMaximumWeight();
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public long getExpirationCount() {
+        return cache.getExpirationCount();
     }
-}
\ No newline at end of file
+}
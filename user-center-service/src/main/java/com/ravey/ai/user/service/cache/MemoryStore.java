@@ -0,0 +1,324 @@
+package com.ravey.ai.user.service.cache;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界内存存储
+ * 按估算字节数限制总权重，超出时按 LRU 淘汰；过期时间由哈希时间轮调度，
+ * 登记和取消均为 O(1)，每次推进只处理到期的槽位，读取时另做惰性检查。
+ * 所有操作在同一把锁内完成，仅用于无 Redis 的测试环境，不追求高并发。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+final class MemoryStore {
+
+    /**
+     * 时间轮刻度（毫秒）
+     */
+    static final long TICK_MILLIS = 1000L;
+
+    /**
+     * 时间轮槽数（2的幂），一圈约8.5分钟，更长的过期时间在槽内按刻度跳过
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * 非字符串、非字节数组值的估算字节数
+     */
+    private static final int OBJECT_WEIGHT = 256;
+
+    /**
+     * 条目自身开销的估算字节数
+     */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long maximumWeight;
+    private final long startMillis;
+    private final LinkedHashMap<String, Node> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Set<Node>[] wheel;
+
+    private long currentTick;
+    private long totalWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    /**
+     * @param maximumWeight 最大权重（估算字节数）
+     */
+    @SuppressWarnings("unchecked")
+    MemoryStore(long maximumWeight) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight必须大于0");
+        }
+        this.maximumWeight = maximumWeight;
+        this.startMillis = System.currentTimeMillis();
+        this.wheel = new Set[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new HashSet<>();
+        }
+    }
+
+    /**
+     * 获取值
+     *
+     * @param key 键
+     * @return 值，不存在或已过期时返回null
+     */
+    synchronized Object get(String key) {
+        Node node = entries.get(key);
+        if (node != null && node.expiresAt <= System.currentTimeMillis()) {
+            removeNode(node);
+            expirationCount.increment();
+            node = null;
+        }
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return node.value;
+    }
+
+    /**
+     * 判断键是否存在且未过期，不计入命中统计
+     *
+     * @param key 键
+     * @return 是否存在
+     */
+    synchronized boolean containsKey(String key) {
+        Node node = entries.get(key);
+        return node != null && node.expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 写入值
+     *
+     * @param key       键
+     * @param value     值
+     * @param ttlMillis 过期时间（毫秒），小于等于0表示不过期
+     */
+    synchronized void put(String key, Object value, long ttlMillis) {
+        if (key == null || value == null) {
+            return;
+        }
+        Node previous = entries.get(key);
+        if (previous != null) {
+            removeNode(previous);
+        }
+        Node node = new Node(key, value, weigh(key, value));
+        entries.put(key, node);
+        totalWeight += node.weight;
+        schedule(node, ttlMillis);
+        evictOverweight();
+    }
+
+    /**
+     * 键不存在或已过期时写入值
+     *
+     * @param key       键
+     * @param value     值
+     * @param ttlMillis 过期时间（毫秒），小于等于0表示不过期
+     * @return 是否写入
+     */
+    synchronized boolean putIfAbsent(String key, Object value, long ttlMillis) {
+        if (containsKey(key)) {
+            return false;
+        }
+        put(key, value, ttlMillis);
+        return true;
+    }
+
+    /**
+     * 值与期望值相等时删除
+     *
+     * @param key   键
+     * @param value 期望值
+     */
+    synchronized void remove(String key, Object value) {
+        Node node = entries.get(key);
+        if (node != null && node.value.equals(value)) {
+            removeNode(node);
+        }
+    }
+
+    /**
+     * 删除值
+     *
+     * @param key 键
+     */
+    synchronized void remove(String key) {
+        Node node = entries.get(key);
+        if (node != null) {
+            removeNode(node);
+        }
+    }
+
+    /**
+     * 重新设置过期时间
+     *
+     * @param key       键
+     * @param ttlMillis 过期时间（毫秒），小于等于0表示不过期
+     * @return 键是否存在
+     */
+    synchronized boolean expire(String key, long ttlMillis) {
+        Node node = entries.get(key);
+        if (node == null) {
+            return false;
+        }
+        unschedule(node);
+        schedule(node, ttlMillis);
+        return true;
+    }
+
+    /**
+     * 获取剩余过期时间
+     *
+     * @param key 键
+     * @return 剩余毫秒数；键不存在或已过期时返回-2，未设置过期时间时返回-1
+     */
+    synchronized long ttl(String key) {
+        Node node = entries.get(key);
+        if (node == null) {
+            return -2;
+        }
+        if (node.expiresAt == Long.MAX_VALUE) {
+            return -1;
+        }
+        long remaining = node.expiresAt - System.currentTimeMillis();
+        return remaining > 0 ? remaining : -2;
+    }
+
+    /**
+     * 推进时间轮，删除到期条目
+     * 落后超过一圈时每个槽位只扫描一次
+     *
+     * @param now 当前时间（毫秒）
+     */
+    synchronized void advance(long now) {
+        long targetTick = (now - startMillis) / TICK_MILLIS;
+        long steps = Math.min(targetTick - currentTick, WHEEL_SIZE);
+        for (long i = 1; i <= steps; i++) {
+            Set<Node> slot = wheel[(int) ((currentTick + i) & (WHEEL_SIZE - 1))];
+            Iterator<Node> it = slot.iterator();
+            while (it.hasNext()) {
+                Node node = it.next();
+                if (node.expireTick <= targetTick) {
+                    it.remove();
+                    node.slot = null;
+                    entries.remove(node.key);
+                    totalWeight -= node.weight;
+                    expirationCount.increment();
+                }
+            }
+        }
+        if (targetTick > currentTick) {
+            currentTick = targetTick;
+        }
+    }
+
+    private void schedule(Node node, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            node.expiresAt = Long.MAX_VALUE;
+            return;
+        }
+        node.expiresAt = System.currentTimeMillis() + ttlMillis;
+        // 向上取整到刻度，保证不早于过期时间删除
+        long tick = (node.expiresAt - startMillis + TICK_MILLIS - 1) / TICK_MILLIS;
+        node.expireTick = Math.max(tick, currentTick + 1);
+        node.slot = wheel[(int) (node.expireTick & (WHEEL_SIZE - 1))];
+        node.slot.add(node);
+    }
+
+    private void unschedule(Node node) {
+        if (node.slot != null) {
+            node.slot.remove(node);
+            node.slot = null;
+        }
+    }
+
+    private void removeNode(Node node) {
+        unschedule(node);
+        entries.remove(node.key);
+        totalWeight -= node.weight;
+    }
+
+    private void evictOverweight() {
+        Iterator<Map.Entry<String, Node>> it = entries.entrySet().iterator();
+        while (totalWeight > maximumWeight && it.hasNext()) {
+            Node eldest = it.next().getValue();
+            it.remove();
+            unschedule(eldest);
+            totalWeight -= eldest.weight;
+            evictionCount.increment();
+        }
+    }
+
+    private static long weigh(String key, Object value) {
+        long valueWeight;
+        if (value instanceof String) {
+            valueWeight = 2L * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            valueWeight = ((byte[]) value).length;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            valueWeight = 16;
+        } else {
+            valueWeight = OBJECT_WEIGHT;
+        }
+        return ENTRY_OVERHEAD + 2L * key.length() + valueWeight;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return totalWeight;
+    }
+
+    long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    long getHitCount() {
+        return hitCount.sum();
+    }
+
+    long getMissCount() {
+        return missCount.sum();
+    }
+
+    long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    long getExpirationCount() {
+        return expirationCount.sum();
+    }
+
+    /**
+     * 存储条目，同时是时间轮槽位中的元素（按引用判等）
+     */
+    private static final class Node {
+        private final String key;
+        private final Object value;
+        private final long weight;
+        private long expiresAt;
+        private long expireTick;
+        private Set<Node> slot;
+
+        private Node(String key, Object value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
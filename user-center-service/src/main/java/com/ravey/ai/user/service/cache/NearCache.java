@@ -0,0 +1,128 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import com.ravey.ai.user.api.utils.LocalCache;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内近端缓存
+ * 缓存会话（令牌 -> 用户ID）和不透明令牌会话（令牌 -> 声明），命中时无需访问 Redis，即会话键族的一级缓存，
+ * 容量和过期时间取 cache.tier.user-session 配置。
+ * 各节点通过 Redis 发布/订阅接收失效消息，条目另有较短的本地过期时间作为兜底，
+ * 因此吊销在有界延迟内对所有节点生效。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearCache {
+
+    /**
+     * 会话失效消息前缀，格式：session:{tokenDigest}
+     */
+    public static final String SESSION_MESSAGE_PREFIX = "session:";
+
+    private final TwoLevelCache twoLevelCache;
+
+    /**
+     * 近端缓存过期时间（毫秒），即错过失效消息时的最大不一致时长
+     */
+    private long ttlMillis;
+
+    private LocalCache<String, Long> sessions;
+    private LocalCache<String, VerifiedToken> opaqueSessions;
+
+    @PostConstruct
+    public void init() {
+        TwoLevelCache.Settings settings = twoLevelCache.settings(CacheFamily.USER_SESSION);
+        // 关闭一级缓存时过期时间为0，写入即被忽略
+        ttlMillis = settings.getL1Enabled() ? settings.getL1Ttl() * 1000L : 0L;
+        sessions = new LocalCache<>("near.user-session", settings.getL1MaxSize(), ttlMillis);
+        opaqueSessions = new LocalCache<>("near.opaque-session", settings.getL1MaxSize(), ttlMillis);
+    }
+
+    /**
+     * 获取会话对应的用户ID
+     *
+     * @param digest 令牌摘要
+     * @return 用户ID，未命中返回null
+     */
+    public Long getSession(TokenDigest digest) {
+        return sessions.get(digest.toString());
+    }
+
+    /**
+     * 缓存会话
+     *
+     * @param digest 令牌摘要
+     * @param userId 用户ID
+     */
+    public void putSession(TokenDigest digest, Long userId) {
+        sessions.put(digest.toString(), userId);
+    }
+
+    /**
+     * 使会话失效
+     *
+     * @param digest 令牌摘要
+     */
+    public void invalidateSession(TokenDigest digest) {
+        sessions.invalidate(digest.toString());
+        opaqueSessions.invalidate(digest.toString());
+    }
+
+    /**
+     * 获取不透明令牌会话
+     *
+     * @param digest 令牌摘要
+     * @return 会话声明，未命中返回null
+     */
+    public VerifiedToken getOpaqueSession(TokenDigest digest) {
+        return opaqueSessions.get(digest.toString());
+    }
+
+    /**
+     * 缓存不透明令牌会话，本地保留时间不超过会话自身的过期时间
+     *
+     * @param digest  令牌摘要
+     * @param session 会话声明
+     */
+    public void putOpaqueSession(TokenDigest digest, VerifiedToken session) {
+        long sessionTtlMillis = Math.min(session.getExpiresAt() - System.currentTimeMillis(), ttlMillis);
+        if (sessionTtlMillis > 0) {
+            opaqueSessions.put(digest.toString(), session, sessionTtlMillis);
+        }
+    }
+
+    /**
+     * 处理其他节点发布的失效消息
+     *
+     * @param message 失效消息
+     */
+    public void handleInvalidation(String message) {
+        if (message == null) {
+            return;
+        }
+        if (message.startsWith(SESSION_MESSAGE_PREFIX)) {
+            String digest = message.substring(SESSION_MESSAGE_PREFIX.length());
+            sessions.invalidate(digest);
+            opaqueSessions.invalidate(digest);
+        } else {
+            log.warn("无法识别的近端缓存失效消息: {}", message);
+        }
+    }
+
+    public LocalCache<String, Long> getSessions() {
+        return sessions;
+    }
+
+    public LocalCache<String, VerifiedToken> getOpaqueSessions() {
+        return opaqueSessions;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ravey.ai.user.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 二级缓存存储
+ * 与 {@link MemoryCacheService} 同时存在时优先使用
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Primary
+@Component
+@RequiredArgsConstructor
+public class RedisCacheTier implements CacheTier {
+
+    /**
+     * 比较持有者后删除锁，避免锁过期后误删其他节点的锁（持有者按值序列化器编码后比较）
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    @Override
+    public Object get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public List<Object> multiGet(List<String> keys) {
+        List<Object> values = redisTemplate.opsForValue().multiGet(new ArrayList<Object>(keys));
+        return values != null ? values : Collections.nCopies(keys.size(), null);
+    }
+
+    @Override
+    public void set(String key, Object value, long timeout) {
+        redisTemplate.opsForValue().set(key, value, timeout, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.delete(key);
+    }
+
+    @Override
+    public void expire(String key, long timeout) {
+        redisTemplate.expire(key, timeout, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long getExpire(String key) {
+        Long expire = redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        return expire != null ? expire : -2;
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, long timeoutMillis) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(key, owner, timeoutMillis, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(key), owner);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.dto.UsersDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 会话及用户信息的一次性查询结果
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Getter
+@RequiredArgsConstructor
+public final class SessionProfile {
+
+    /**
+     * 会话中记录的用户ID，会话不存在时为null
+     */
+    private final Long userId;
+
+    /**
+     * 缓存中的用户信息，未缓存时为null
+     */
+    private final UsersDTO user;
+}
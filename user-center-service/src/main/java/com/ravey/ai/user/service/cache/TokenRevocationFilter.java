@@ -0,0 +1,197 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.constants.CacheConstants;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import com.ravey.ai.user.service.event.publisher.CacheInvalidationPublisher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 令牌吊销过滤器
+ * 已吊销令牌的摘要以过期时间为分值存入 Redis 有序集合，各节点在本地维护一份布隆过滤器：
+ * 吊销时通过 Redis 发布/订阅增量同步，并定期从有序集合全量重建（同时清除已过期条目）。
+ * 绝大多数请求的“未吊销”判断只需查询本地布隆过滤器，只有命中时才访问 Redis 确认。
+ * <p>
+ * 启用后请求过滤器不再逐次读取 Redis 会话键，会话有效期改为按令牌签发时间推算：
+ * 会话键与令牌同时写入，有效期为 cache.tier.user-session.l2-ttl，且不超过令牌自身的过期时间。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationFilter {
+
+    /**
+     * 吊销消息前缀，格式：revoked:{tokenDigest}
+     */
+    public static final String REVOKED_MESSAGE_PREFIX = "revoked:";
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private final TwoLevelCache twoLevelCache;
+
+    /**
+     * 是否以本地吊销过滤器代替逐次读取 Redis 会话
+     */
+    @Value("${auth.revocation.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 预期同时有效的吊销条目数
+     */
+    @Value("${auth.revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    /**
+     * 布隆过滤器期望误判率
+     */
+    @Value("${auth.revocation.fpp:0.001}")
+    private double fpp;
+
+    private volatile DigestBloomFilter filter;
+    private volatile DigestBloomFilter rebuilding;
+
+    private final LongAdder positiveCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        filter = new DigestBloomFilter(expectedInsertions, fpp);
+        if (enabled) {
+            resync();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 判断令牌对应的会话是否已失效（已过会话有效期或已被吊销）
+     *
+     * @param verifiedToken 已验签的令牌声明
+     * @return true-已失效
+     */
+    public boolean isRevoked(VerifiedToken verifiedToken) {
+        long sessionTtlMillis = TimeUnit.SECONDS.toMillis(twoLevelCache.settings(CacheFamily.USER_SESSION).getL2Ttl());
+        long sessionExpiresAt = Math.min(verifiedToken.getIssuedAt() + sessionTtlMillis, verifiedToken.getExpiresAt());
+        if (sessionExpiresAt <= System.currentTimeMillis()) {
+            return true;
+        }
+        TokenDigest digest = TokenDigest.of(verifiedToken.getToken());
+        if (!filter.mightContain(digest)) {
+            return false;
+        }
+        positiveCount.increment();
+        Double score = redisTemplate.opsForZSet().score(CacheConstants.REVOKED_TOKENS_KEY, digest.toString());
+        if (score == null) {
+            falsePositiveCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 吊销令牌并通知所有节点
+     *
+     * @param digest    令牌摘要
+     * @param expiresAt 令牌过期时间（毫秒时间戳），过期后条目自动清除
+     */
+    public void revoke(TokenDigest digest, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        redisTemplate.opsForZSet().add(CacheConstants.REVOKED_TOKENS_KEY, digest.toString(), expiresAt);
+        addLocal(digest);
+        invalidationPublisher.publishRevocation(digest);
+        log.debug("吊销令牌: digest={}", digest);
+    }
+
+    /**
+     * 处理其他节点发布的吊销消息
+     *
+     * @param digestHex 令牌摘要
+     */
+    public void handleRevocation(String digestHex) {
+        try {
+            addLocal(TokenDigest.fromString(digestHex));
+        } catch (IllegalArgumentException e) {
+            log.warn("无法识别的吊销消息: {}", digestHex);
+        }
+    }
+
+    /**
+     * 全量重建本地布隆过滤器，并清除 Redis 中已过期的吊销条目
+     * 用于补偿丢失的发布/订阅消息，以及释放已过期条目占用的位
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.resync-interval:60}", initialDelayString = "${auth.revocation.resync-interval:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void resync() {
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(CacheConstants.REVOKED_TOKENS_KEY, 0, now);
+            if (!enabled) {
+                return;
+            }
+            DigestBloomFilter next = new DigestBloomFilter(expectedInsertions, fpp);
+            rebuilding = next;
+            Set<Object> members = redisTemplate.opsForZSet().rangeByScore(CacheConstants.REVOKED_TOKENS_KEY, now, Double.MAX_VALUE);
+            if (members != null) {
+                for (Object member : members) {
+                    next.put(TokenDigest.fromString(member.toString()));
+                }
+            }
+            filter = next;
+            log.debug("重建令牌吊销过滤器: entries={}", members != null ? members.size() : 0);
+        } catch (Exception e) {
+            log.error("重建令牌吊销过滤器失败", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * 写入本地过滤器；重建期间同时写入新过滤器，避免重建时到达的消息丢失
+     */
+    private void addLocal(TokenDigest digest) {
+        DigestBloomFilter next = rebuilding;
+        filter.put(digest);
+        if (next != null) {
+            next.put(digest);
+        }
+    }
+
+    /**
+     * 获取布隆过滤器命中次数（需要访问 Redis 确认的次数）
+     *
+     * @return 命中次数
+     */
+    public long getPositiveCount() {
+        return positiveCount.sum();
+    }
+
+    /**
+     * 获取布隆过滤器误判次数
+     *
+     * @return 误判次数
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.sum();
+    }
+}
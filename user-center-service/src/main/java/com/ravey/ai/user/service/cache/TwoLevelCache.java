@@ -0,0 +1,613 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.constants.CacheKeys;
+import com.ravey.ai.user.api.utils.LocalCache;
+import com.ravey.ai.user.service.event.publisher.CacheInvalidationPublisher;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 二级缓存
+ * 一级为进程内 {@link LocalCache}（容量和过期时间有界），二级为 {@link CacheTier}（Redis，无 Redis 时为内存缓存）。
+ * 读取先查一级，未命中再查二级并回填一级；写入和删除同时作用于两级，显式写入和删除通过 Redis 发布/订阅通知其他节点丢弃一级缓存，
+ * 回源、不存在占位值和后台刷新只填充缓存，不发布失效消息；节点收到自己发布的消息时忽略。
+ * 各键族在 cache.tier.{name} 下单独配置，未配置的项使用 cache.near 的容量和过期时间。
+ * 两级均未命中时通过 {@link #getOrLoad} 回源，同一节点同一键同时只有一次回源，其余请求等待其结果；
+ * 开启 cache.single-flight.distributed-lock 后以 Redis 锁在集群内合并回源。
+ * 回源结果不存在时按键族的 negative-ttl 写入占位值，期间相同请求不再回源；记录创建时须调用 {@link #evict} 删除占位值。
+ * 配置了 refresh-after 的键族，二级缓存值写入超过该时间后再被读取时，在后台重新加载并续期，读取方不等待。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TwoLevelCache {
+
+    /**
+     * 一级缓存失效消息前缀，格式：tier:{nodeId}:{family}:{key}
+     */
+    public static final String TIER_MESSAGE_PREFIX = "tier:";
+
+    private static final String TIER_PROPERTY = "cache.tier";
+
+    /**
+     * 不存在结果的占位值，与真实值同键存放，写入真实值时自然覆盖；
+     * 不属于任何缓存值类型，二级缓存中由 {@link CompactValueSerializer} 以专用类型字节编码
+     */
+    static final Marker NOT_FOUND = Marker.NOT_FOUND;
+
+    /**
+     * 升级前写入二级缓存的不存在占位值，仅在读取二级缓存时识别，过期后不再出现
+     */
+    private static final String LEGACY_NOT_FOUND = "__not_found__";
+
+    /**
+     * 未抢到回源锁时轮询二级缓存的间隔（毫秒）
+     */
+    private static final long LOCK_POLL_MILLIS = 50L;
+
+    private final CacheTier remoteTier;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private final Environment environment;
+
+    @Qualifier("applicationTaskExecutor")
+    private final TaskExecutor applicationTaskExecutor;
+
+    /**
+     * 一级缓存默认最大条目数
+     */
+    @Value("${cache.near.max-size:10000}")
+    private int defaultMaxSize;
+
+    /**
+     * 一级缓存默认过期时间（秒）
+     */
+    @Value("${cache.near.ttl:30}")
+    private long defaultTtl;
+
+    /**
+     * 是否以 Redis 锁在集群内合并回源
+     */
+    @Value("${cache.single-flight.distributed-lock:false}")
+    private boolean distributedLock;
+
+    /**
+     * 回源锁自动过期时间（毫秒），也是未抢到锁时等待其他节点回源的最长时间
+     */
+    @Value("${cache.single-flight.lock-ttl:3000}")
+    private long lockTtl;
+
+    /**
+     * 等待本节点进行中回源的最长时间（毫秒），超时后自行回源
+     */
+    @Value("${cache.single-flight.wait-timeout:5000}")
+    private long waitTimeout;
+
+    private final Map<CacheFamily, Settings> settings = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LocalCache<String, Object>> localTiers = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LongAdder> remoteHits = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LongAdder> remoteMisses = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LongAdder> loads = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LongAdder> coalescedLoads = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LongAdder> negativeHits = new EnumMap<>(CacheFamily.class);
+    private final Map<CacheFamily, LongAdder> refreshes = new EnumMap<>(CacheFamily.class);
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点进行中的后台刷新，与 {@link #inFlight} 分开：刷新放弃时没有结果，不能交给等待回源的请求
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 本节点标识，随失效消息发布，用于忽略自己发布的消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void init() {
+        Map<String, Settings> configured = Binder.get(environment)
+                .bind(TIER_PROPERTY, Bindable.mapOf(String.class, Settings.class))
+                .orElse(Collections.emptyMap());
+        for (CacheFamily family : CacheFamily.values()) {
+            Settings familySettings = resolve(family, configured.get(family.getConfigName()));
+            settings.put(family, familySettings);
+            remoteHits.put(family, new LongAdder());
+            remoteMisses.put(family, new LongAdder());
+            loads.put(family, new LongAdder());
+            coalescedLoads.put(family, new LongAdder());
+            negativeHits.put(family, new LongAdder());
+            refreshes.put(family, new LongAdder());
+            // 会话的一级缓存由 NearCache 持有，以便按令牌摘要吊销
+            if (familySettings.getL1Enabled() && family != CacheFamily.USER_SESSION) {
+                localTiers.put(family, new LocalCache<>("l1." + family.getConfigName(),
+                        familySettings.getL1MaxSize(), familySettings.getL1Ttl() * 1000L));
+            }
+            log.info("二级缓存配置: family={}, l1Enabled={}, l1MaxSize={}, l1Ttl={}s, l2Ttl={}s, negativeTtl={}s, "
+                            + "refreshAfter={}s", family.getConfigName(), familySettings.getL1Enabled(),
+                    familySettings.getL1MaxSize(), familySettings.getL1Ttl(), familySettings.getL2Ttl(),
+                    familySettings.getNegativeTtl(), familySettings.getRefreshAfter());
+        }
+    }
+
+    /**
+     * 获取缓存，先查一级再查二级，二级命中时回填一级
+     *
+     * @param family 键族
+     * @param key    缓存键
+     * @param type   值类型
+     * @return 值，不存在或类型不符时返回null
+     */
+    public <V> V get(CacheFamily family, String key, Class<V> type) {
+        Object value = lookup(family, key);
+        return value != NOT_FOUND && type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    /**
+     * 获取缓存，两级均未命中时回源并写入缓存
+     * 同一节点同一键同时只有一个请求执行 loader，其余请求等待并共享其结果（包括异常）；
+     * loader 返回null时按键族的 negative-ttl 缓存不存在结果，未配置时不写入缓存；
+     * 二级缓存命中且写入时间超过 refresh-after 时返回当前值，并在后台用同一 loader 刷新
+     *
+     * @param family 键族
+     * @param key    缓存键
+     * @param type   值类型
+     * @param loader 回源加载器
+     * @return 值，不存在时返回null
+     */
+    public <V> V getOrLoad(CacheFamily family, String key, Class<V> type, Supplier<V> loader) {
+        Object cached = lookupLocal(family, key);
+        if (cached == null) {
+            cached = lookupRemote(family, key);
+            if (cached != null && cached != NOT_FOUND) {
+                refreshIfStale(family, key, loader);
+            }
+        }
+        if (cached == NOT_FOUND) {
+            negativeHits.get(family).increment();
+            return null;
+        }
+        if (type.isInstance(cached)) {
+            return type.cast(cached);
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedLoads.get(family).increment();
+            return await(existing, key, type, loader);
+        }
+        try {
+            V value = load(family, key, type, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 写入缓存（使用键族的二级缓存过期时间），并通知其他节点丢弃旧的一级缓存
+     *
+     * @param family 键族
+     * @param key    缓存键
+     * @param value  值
+     */
+    public void put(CacheFamily family, String key, Object value) {
+        put(family, key, value, settings.get(family).getL2Ttl());
+    }
+
+    /**
+     * 写入缓存，并通知其他节点丢弃旧的一级缓存
+     *
+     * @param family  键族
+     * @param key     缓存键
+     * @param value   值
+     * @param timeout 二级缓存过期时间（秒）
+     */
+    public void put(CacheFamily family, String key, Object value, long timeout) {
+        fill(family, key, value, timeout);
+        publishInvalidation(family, key);
+    }
+
+    /**
+     * 删除两级缓存，并通知其他节点丢弃一级缓存
+     *
+     * @param family 键族
+     * @param key    缓存键
+     */
+    public void evict(CacheFamily family, String key) {
+        remoteTier.delete(key);
+        invalidateLocal(family, key);
+        publishInvalidation(family, key);
+    }
+
+    /**
+     * 只查一级缓存，用于调用方自行批量读取二级缓存的场景
+     *
+     * @param family 键族
+     * @param key    缓存键
+     * @param type   值类型
+     * @return 值，未命中或类型不符时返回null
+     */
+    public <V> V getLocal(CacheFamily family, String key, Class<V> type) {
+        LocalCache<String, Object> localTier = localTiers.get(family);
+        if (localTier == null) {
+            return null;
+        }
+        Object value = localTier.get(key);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    /**
+     * 只写一级缓存，用于调用方自行从二级缓存读取后回填
+     *
+     * @param family 键族
+     * @param key    缓存键
+     * @param value  值
+     */
+    public void putLocal(CacheFamily family, String key, Object value) {
+        LocalCache<String, Object> localTier = localTiers.get(family);
+        if (localTier != null) {
+            localTier.put(key, value);
+        }
+    }
+
+    /**
+     * 只删除本节点一级缓存
+     *
+     * @param family 键族
+     * @param key    缓存键
+     */
+    public void invalidateLocal(CacheFamily family, String key) {
+        LocalCache<String, Object> localTier = localTiers.get(family);
+        if (localTier != null) {
+            localTier.invalidate(key);
+        }
+    }
+
+    /**
+     * 记录一次二级缓存读取结果，调用方自行批量读取二级缓存时使用
+     *
+     * @param family 键族
+     * @param hit    是否命中
+     */
+    public void recordRemote(CacheFamily family, boolean hit) {
+        (hit ? remoteHits : remoteMisses).get(family).increment();
+    }
+
+    /**
+     * 批量读取二级缓存
+     *
+     * @param keys 缓存键列表
+     * @return 与入参顺序一致的值列表
+     */
+    public List<Object> multiGetRemote(List<String> keys) {
+        return remoteTier.multiGet(keys);
+    }
+
+    /**
+     * 处理其他节点发布的一级缓存失效消息，本节点发布的消息直接忽略
+     *
+     * @param message 去掉前缀后的消息，格式：{nodeId}:{family}:{key}
+     */
+    public void handleInvalidation(String message) {
+        int origin = message.indexOf(':');
+        if (origin > 0 && nodeId.equals(message.substring(0, origin))) {
+            return;
+        }
+        int separator = origin > 0 ? message.indexOf(':', origin + 1) : -1;
+        CacheFamily family = separator > 0 ? CacheFamily.of(message.substring(origin + 1, separator)) : null;
+        if (family == null) {
+            log.warn("无法识别的二级缓存失效消息: {}", message);
+            return;
+        }
+        invalidateLocal(family, message.substring(separator + 1));
+    }
+
+    /**
+     * 获取键族配置
+     *
+     * @param family 键族
+     * @return 键族配置
+     */
+    public Settings settings(CacheFamily family) {
+        return settings.get(family);
+    }
+
+    public Collection<LocalCache<String, Object>> getLocalTiers() {
+        return localTiers.values();
+    }
+
+    public long getRemoteHitCount(CacheFamily family) {
+        return remoteHits.get(family).sum();
+    }
+
+    public long getRemoteMissCount(CacheFamily family) {
+        return remoteMisses.get(family).sum();
+    }
+
+    public long getLoadCount(CacheFamily family) {
+        return loads.get(family).sum();
+    }
+
+    public long getCoalescedLoadCount(CacheFamily family) {
+        return coalescedLoads.get(family).sum();
+    }
+
+    public long getNegativeHitCount(CacheFamily family) {
+        return negativeHits.get(family).sum();
+    }
+
+    public long getRefreshCount(CacheFamily family) {
+        return refreshes.get(family).sum();
+    }
+
+    /**
+     * 先查一级再查二级，二级命中时回填一级，返回原始值（可能是不存在占位值）
+     */
+    private Object lookup(CacheFamily family, String key) {
+        Object value = lookupLocal(family, key);
+        return value != null ? value : lookupRemote(family, key);
+    }
+
+    private Object lookupLocal(CacheFamily family, String key) {
+        LocalCache<String, Object> localTier = localTiers.get(family);
+        return localTier != null ? localTier.get(key) : null;
+    }
+
+    private Object lookupRemote(CacheFamily family, String key) {
+        Object value = getRemote(key);
+        recordRemote(family, value != null);
+        if (value != null) {
+            putLocal(family, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 等待本节点进行中的回源，超时或被中断时自行回源（不写入缓存）
+     */
+    private <V> V await(CompletableFuture<Object> flight, String key, Class<V> type, Supplier<V> loader) {
+        try {
+            Object value = flight.get(waitTimeout, TimeUnit.MILLISECONDS);
+            return value != NOT_FOUND && type.isInstance(value) ? type.cast(value) : null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("等待回源超时，直接回源: key={}, waitTimeout={}ms", key, waitTimeout);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        }
+    }
+
+    /**
+     * 回源；开启分布式锁时只有抢到锁的节点回源，其余节点轮询二级缓存等待其写入，
+     * 锁过期仍未等到时自行回源
+     */
+    private <V> V load(CacheFamily family, String key, Class<V> type, Supplier<V> loader) {
+        loads.get(family).increment();
+        if (!distributedLock) {
+            return loadAndPut(family, key, loader);
+        }
+        String lockKey = CacheKeys.loadLock(key);
+        String owner = UUID.randomUUID().toString();
+        if (remoteTier.tryLock(lockKey, owner, lockTtl)) {
+            try {
+                // 加锁前其他节点可能刚完成回源
+                Object value = getRemote(key);
+                return value != null ? adopt(family, key, value, type) : loadAndPut(family, key, loader);
+            } finally {
+                remoteTier.unlock(lockKey, owner);
+            }
+        }
+        long deadline = System.currentTimeMillis() + lockTtl;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Object value = getRemote(key);
+            if (value != null) {
+                return adopt(family, key, value, type);
+            }
+        }
+        log.debug("未等到其他节点回源结果，直接回源: key={}", key);
+        return loadAndPut(family, key, loader);
+    }
+
+    /**
+     * 采用其他节点回源写入的二级缓存值并回填一级，不存在占位值返回null
+     */
+    private <V> V adopt(CacheFamily family, String key, Object value, Class<V> type) {
+        putLocal(family, key, value);
+        return value != NOT_FOUND && type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    /**
+     * 读取二级缓存，升级前写入的不存在占位值换成 {@link #NOT_FOUND}
+     */
+    private Object getRemote(String key) {
+        Object value = remoteTier.get(key);
+        return LEGACY_NOT_FOUND.equals(value) ? NOT_FOUND : value;
+    }
+
+    /**
+     * 二级缓存值写入时间超过 refresh-after 时提交后台刷新
+     * 写入时间按键族二级缓存过期时间减去剩余过期时间推算；本节点同一键已在回源或刷新时不重复提交。
+     * 刷新只记录在 {@link #refreshing} 中，同一键随后未命中的请求照常回源，不会拿到放弃刷新时的空结果
+     */
+    private void refreshIfStale(CacheFamily family, String key, Supplier<?> loader) {
+        Settings familySettings = settings.get(family);
+        if (familySettings.getRefreshAfter() <= 0) {
+            return;
+        }
+        long remaining = remoteTier.getExpire(key);
+        if (remaining < 0 || familySettings.getL2Ttl() - remaining < familySettings.getRefreshAfter()) {
+            return;
+        }
+        if (inFlight.containsKey(key) || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            applicationTaskExecutor.execute(() -> {
+                try {
+                    refresh(family, key, loader);
+                } catch (RuntimeException | Error e) {
+                    log.warn("缓存提前刷新失败，保留当前值: key={}", key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("缓存提前刷新任务被拒绝: key={}", key);
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * 后台刷新；开启分布式锁时未抢到锁说明其他节点正在刷新，直接放弃
+     */
+    private void refresh(CacheFamily family, String key, Supplier<?> loader) {
+        if (!distributedLock) {
+            refreshes.get(family).increment();
+            loadAndPut(family, key, loader);
+            return;
+        }
+        String lockKey = CacheKeys.loadLock(key);
+        String owner = UUID.randomUUID().toString();
+        if (!remoteTier.tryLock(lockKey, owner, lockTtl)) {
+            return;
+        }
+        try {
+            refreshes.get(family).increment();
+            loadAndPut(family, key, loader);
+        } finally {
+            remoteTier.unlock(lockKey, owner);
+        }
+    }
+
+    /**
+     * 回源并填充两级缓存；回源值来自数据源当前状态，其他节点的一级缓存不因此失效，不发布失效消息
+     */
+    private <V> V loadAndPut(CacheFamily family, String key, Supplier<V> loader) {
+        V value = loader.get();
+        if (value != null) {
+            fill(family, key, value, settings.get(family).getL2Ttl());
+            return value;
+        }
+        long negativeTtl = settings.get(family).getNegativeTtl();
+        if (negativeTtl > 0) {
+            fill(family, key, NOT_FOUND, negativeTtl);
+        }
+        return null;
+    }
+
+    private void fill(CacheFamily family, String key, Object value, long timeout) {
+        remoteTier.set(key, value, timeout);
+        LocalCache<String, Object> localTier = localTiers.get(family);
+        if (localTier != null) {
+            // 一级缓存不晚于二级过期，不存在占位值的过期时间通常短于一级缓存
+            localTier.put(key, value, Math.min(settings.get(family).getL1Ttl(), timeout) * 1000L);
+        }
+    }
+
+    private void publishInvalidation(CacheFamily family, String key) {
+        if (localTiers.containsKey(family)) {
+            invalidationPublisher.publishTierInvalidation(nodeId + ":" + family.name() + ":" + key);
+        }
+    }
+
+    private Settings resolve(CacheFamily family, Settings configured) {
+        Settings resolved = new Settings();
+        Settings source = configured != null ? configured : resolved;
+        resolved.setL1Enabled(source.getL1Enabled() == null || source.getL1Enabled());
+        resolved.setL1MaxSize(source.getL1MaxSize() != null ? source.getL1MaxSize() : defaultMaxSize);
+        resolved.setL1Ttl(source.getL1Ttl() != null ? source.getL1Ttl() : defaultTtl);
+        resolved.setL2Ttl(source.getL2Ttl() != null ? source.getL2Ttl() : family.getDefaultL2Ttl());
+        resolved.setNegativeTtl(source.getNegativeTtl() != null ? source.getNegativeTtl() : family.getDefaultNegativeTtl());
+        resolved.setRefreshAfter(source.getRefreshAfter() != null ? source.getRefreshAfter() : family.getDefaultRefreshAfter());
+        return resolved;
+    }
+
+    /**
+     * 键族配置
+     */
+    @Data
+    public static class Settings {
+
+        /**
+         * 是否启用一级缓存
+         */
+        private Boolean l1Enabled;
+
+        /**
+         * 一级缓存最大条目数
+         */
+        private Integer l1MaxSize;
+
+        /**
+         * 一级缓存过期时间（秒），即错过失效消息时的最大不一致时长
+         */
+        private Long l1Ttl;
+
+        /**
+         * 二级缓存过期时间（秒）
+         */
+        private Long l2Ttl;
+
+        /**
+         * 不存在结果缓存时间（秒），0 表示不缓存
+         */
+        private Long negativeTtl;
+
+        /**
+         * 提前刷新时间（秒），二级缓存值写入超过该时间后被读取即在后台重新加载，0 表示不提前刷新
+         */
+        private Long refreshAfter;
+    }
+
+    /**
+     * 缓存内部占位值
+     */
+    enum Marker {
+        NOT_FOUND
+    }
+}
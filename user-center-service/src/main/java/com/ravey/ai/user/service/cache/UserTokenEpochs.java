@@ -0,0 +1,170 @@
+package com.ravey.ai.user.service.cache;
+
+import com.ravey.ai.user.api.constants.CacheKeys;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+import com.ravey.ai.user.api.utils.LocalCache;
+import com.ravey.ai.user.service.event.publisher.CacheInvalidationPublisher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户令牌版本
+ * 令牌签发时写入用户当前版本（ver 声明），版本递增后该用户此前签发的全部令牌失效，
+ * 一次写入即可吊销全部会话，无需枚举令牌。
+ * 当前版本保存在 Redis，各节点本地缓存；递增时通过 Redis 发布/订阅推送新版本，本地缓存过期时间作为兜底。
+ * 版本取 max(当前秒级时间, 原版本+1)，Redis 中的版本过期后再次递增仍大于此前签发的所有版本，吊销不会失效。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserTokenEpochs {
+
+    /**
+     * 版本变更消息前缀，格式：epoch:{userId}:{epoch}
+     */
+    public static final String EPOCH_MESSAGE_PREFIX = "epoch:";
+
+    /**
+     * 原子递增版本：新版本 = max(ARGV[1] 当前秒级时间, 原版本 + 1)，并设置保留时间 ARGV[2]（秒）
+     */
+    private static final RedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>(
+            "local next = math.max(tonumber(ARGV[1]), tonumber(redis.call('get', KEYS[1]) or '0') + 1) "
+                    + "redis.call('set', KEYS[1], next, 'EX', ARGV[2]) return next",
+            Long.class);
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    /**
+     * 本地缓存最大条目数
+     */
+    @Value("${auth.epoch.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    /**
+     * 本地缓存过期时间（秒），即错过版本变更消息时的最大不一致时长
+     */
+    @Value("${auth.epoch.cache.ttl:30}")
+    private long cacheTtl;
+
+    /**
+     * Redis 中版本的保留时间（秒），过期后版本视为0，不影响此前的吊销（见类注释）
+     */
+    @Value("${auth.epoch.retention:2592000}")
+    private long retention;
+
+    private LocalCache<Long, Long> epochs;
+
+    @PostConstruct
+    public void init() {
+        epochs = new LocalCache<>("user.token-epoch", cacheMaxSize, cacheTtl * 1000L);
+    }
+
+    /**
+     * 获取用户当前令牌版本
+     *
+     * @param userId 用户ID
+     * @return 当前版本，从未递增过时为0
+     */
+    public long currentEpoch(Long userId) {
+        Long cached = epochs.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = loadEpoch(userId);
+        epochs.put(userId, epoch);
+        return epoch;
+    }
+
+    /**
+     * 判断令牌版本是否仍有效
+     *
+     * @param verifiedToken 已验签的令牌声明
+     * @return true-有效，false-已被版本递增吊销
+     */
+    public boolean isCurrent(VerifiedToken verifiedToken) {
+        return verifiedToken.getEpoch() >= currentEpoch(verifiedToken.getUserId());
+    }
+
+    /**
+     * 递增用户令牌版本，吊销该用户此前签发的全部令牌
+     * 参数按字符串传入脚本，写入的是原始整数，与 {@link #loadEpoch} 的读取方式一致
+     *
+     * @param userId 用户ID
+     * @return 新版本
+     */
+    public long bump(Long userId) {
+        String key = CacheKeys.userTokenEpoch(userId);
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        Long epoch = redisTemplate.execute(BUMP_SCRIPT, RedisSerializer.string(),
+                new GenericToStringSerializer<>(Long.class), Collections.singletonList(key),
+                String.valueOf(now), String.valueOf(retention));
+        long value = epoch != null ? epoch : now;
+        epochs.put(userId, value);
+        invalidationPublisher.publishEpochChange(userId, value);
+        log.info("递增用户令牌版本: userId={}, epoch={}", userId, value);
+        return value;
+    }
+
+    /**
+     * 处理其他节点发布的版本变更消息
+     *
+     * @param payload 消息内容，格式：{userId}:{epoch}
+     */
+    public void handleEpochChange(String payload) {
+        int separator = payload.indexOf(':');
+        try {
+            Long userId = Long.valueOf(payload.substring(0, separator));
+            long epoch = Long.parseLong(payload.substring(separator + 1));
+            Long cached = epochs.get(userId);
+            if (cached == null || cached < epoch) {
+                epochs.put(userId, epoch);
+            }
+        } catch (RuntimeException e) {
+            log.warn("无法识别的令牌版本消息: {}", payload);
+        }
+    }
+
+    public LocalCache<Long, Long> getEpochs() {
+        return epochs;
+    }
+
+    /**
+     * 从 Redis 读取版本
+     * 版本由脚本写入原始整数，不经过值序列化器，因此按原始字节读取
+     */
+    @SuppressWarnings("unchecked")
+    private long loadEpoch(Long userId) {
+        String key = CacheKeys.userTokenEpoch(userId);
+        byte[] rawKey = ((RedisSerializer<Object>) redisTemplate.getKeySerializer()).serialize(key);
+        byte[] raw = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        if (raw == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(raw, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            log.warn("用户令牌版本格式错误: userId={}", userId);
+            return 0L;
+        }
+    }
+}
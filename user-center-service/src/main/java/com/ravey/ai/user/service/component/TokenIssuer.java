@@ -0,0 +1,216 @@
+package com.ravey.ai.user.service.component;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ravey.ai.user.api.dto.AppsDTO;
+import com.ravey.ai.user.api.enums.TokenMode;
+import com.ravey.ai.user.api.enums.UserErrorCode;
+import com.ravey.ai.user.api.model.dto.OpaqueSession;
+import com.ravey.ai.user.api.model.dto.RefreshSession;
+import com.ravey.ai.user.api.utils.JwtUtils;
+import com.ravey.ai.user.api.utils.OpaqueTokens;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import com.ravey.ai.user.service.cache.CacheService;
+import com.ravey.ai.user.service.cache.UserTokenEpochs;
+import com.ravey.ai.user.service.converter.AppsConverter;
+import com.ravey.ai.user.service.dao.entity.Apps;
+import com.ravey.ai.user.service.dao.mapper.AppsMapper;
+import com.ravey.common.api.model.ServiceException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 令牌签发组件
+ * 统一签发访问令牌和刷新令牌：访问令牌为短期 JWT 或不透明会话令牌（按 apps.token_mode 选择），
+ * 刷新令牌为随机串，以摘要为键保存在 Redis。
+ * 刷新令牌每次使用后立即作废并签发新的刷新令牌（轮换），有效期随之顺延（滑动会话），但不超过自登录起的绝对有效期。
+ * 刷新只读写 Redis，不调用微信接口，也不新增 user_sessions 记录。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenIssuer {
+
+    /**
+     * 刷新令牌随机字节数
+     */
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JwtUtils jwtUtils;
+    private final CacheService cacheService;
+    private final UserTokenEpochs userTokenEpochs;
+    private final AppsMapper appsMapper;
+
+    /**
+     * 刷新令牌有效期（秒），每次刷新后重新计算
+     */
+    @Value("${auth.refresh-token.expiration:2592000}")
+    private long refreshExpiration;
+
+    /**
+     * 登录会话绝对有效期（秒），自登录起计算，刷新不顺延
+     */
+    @Value("${auth.refresh-token.absolute-expiration:7776000}")
+    private long absoluteExpiration;
+
+    /**
+     * 签发访问令牌并写入会话缓存
+     *
+     * @param userId 用户ID
+     * @param appId  应用ID
+     * @return 访问令牌
+     */
+    public String issueAccessToken(Long userId, String appId) {
+        return issueAccessToken(userId, appId, userTokenEpochs.currentEpoch(userId));
+    }
+
+    /**
+     * 登录时签发访问令牌和刷新令牌
+     *
+     * @param userId 用户ID
+     * @param appId  应用ID
+     * @return 签发结果
+     */
+    public IssuedTokens issue(Long userId, String appId) {
+        long epoch = userTokenEpochs.currentEpoch(userId);
+        return issue(userId, appId, epoch, System.currentTimeMillis());
+    }
+
+    /**
+     * 使用刷新令牌换取新的访问令牌和刷新令牌
+     *
+     * @param refreshToken 刷新令牌
+     * @return 签发结果
+     */
+    public IssuedTokens refresh(String refreshToken) {
+        if (!StringUtils.hasText(refreshToken)) {
+            throw new ServiceException(UserErrorCode.REFRESH_TOKEN_INVALID);
+        }
+        RefreshSession session = cacheService.takeRefreshSession(TokenDigest.of(refreshToken));
+        if (session == null) {
+            log.warn("刷新令牌不存在或已使用");
+            throw new ServiceException(UserErrorCode.REFRESH_TOKEN_INVALID);
+        }
+        long now = System.currentTimeMillis();
+        long loginAt = session.getLoginAt() != null ? session.getLoginAt() : now;
+        if (loginAt + absoluteExpiration * 1000L <= now) {
+            log.warn("登录会话已超过绝对有效期: userId={}, loginAt={}", session.getUserId(), loginAt);
+            throw new ServiceException(UserErrorCode.REFRESH_TOKEN_INVALID);
+        }
+        long epoch = userTokenEpochs.currentEpoch(session.getUserId());
+        long sessionEpoch = session.getEpoch() != null ? session.getEpoch() : 0L;
+        if (sessionEpoch < epoch) {
+            log.warn("刷新令牌版本已失效: userId={}, epoch={}", session.getUserId(), sessionEpoch);
+            throw new ServiceException(UserErrorCode.REFRESH_TOKEN_INVALID);
+        }
+        IssuedTokens tokens = issue(session.getUserId(), session.getAppId(), epoch, loginAt);
+        log.info("刷新访问令牌: userId={}, appId={}", session.getUserId(), session.getAppId());
+        return tokens;
+    }
+
+    private IssuedTokens issue(Long userId, String appId, long epoch, long loginAt) {
+        String accessToken = issueAccessToken(userId, appId, epoch);
+
+        String refreshToken = generateRefreshToken();
+        RefreshSession session = new RefreshSession();
+        session.setUserId(userId);
+        session.setAppId(appId);
+        session.setEpoch(epoch);
+        session.setLoginAt(loginAt);
+        // 滑动有效期不超过绝对有效期的剩余时间
+        long remaining = (loginAt + absoluteExpiration * 1000L - System.currentTimeMillis()) / 1000L;
+        long expiresIn = Math.max(1L, Math.min(refreshExpiration, remaining));
+        cacheService.cacheRefreshSession(TokenDigest.of(refreshToken), session, expiresIn);
+
+        return new IssuedTokens(accessToken, jwtUtils.getExpiration(), refreshToken, expiresIn);
+    }
+
+    /**
+     * 登录会话（user_sessions）过期时间：各登录方式都签发刷新令牌，会话按绝对有效期计算，刷新不新增会话记录
+     *
+     * @return 过期时间
+     */
+    public LocalDateTime sessionExpireTime() {
+        return LocalDateTime.now().plusSeconds(absoluteExpiration);
+    }
+
+    /**
+     * 按应用的令牌模式签发访问令牌并写入会话
+     */
+    private String issueAccessToken(Long userId, String appId, long epoch) {
+        if (tokenModeOf(appId) == TokenMode.OPAQUE) {
+            long now = System.currentTimeMillis();
+            String accessToken = OpaqueTokens.generate();
+            OpaqueSession session = new OpaqueSession();
+            session.setUserId(userId);
+            session.setAppId(appId);
+            session.setEpoch(epoch);
+            session.setIssuedAt(now);
+            session.setExpiresAt(now + jwtUtils.getExpiration() * 1000L);
+            cacheService.cacheOpaqueSession(accessToken, session);
+            return accessToken;
+        }
+        String accessToken = jwtUtils.generateToken(userId, appId, epoch);
+        cacheService.cacheUserSession(accessToken, userId);
+        return accessToken;
+    }
+
+    /**
+     * 获取应用的令牌模式（优先从缓存获取应用信息），应用不存在时使用 JWT
+     */
+    private TokenMode tokenModeOf(String appId) {
+        AppsDTO app = cacheService.getAppInfo(appId, () -> {
+            Apps entity = appsMapper.selectOne(new LambdaQueryWrapper<Apps>()
+                    .eq(Apps::getAppId, appId)
+                    .eq(Apps::getStatus, 1));
+            return entity != null ? AppsConverter.toDTO(entity) : null;
+        });
+        return app != null ? TokenMode.of(app.getTokenMode()) : TokenMode.JWT;
+    }
+
+    private static String generateRefreshToken() {
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * 签发结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class IssuedTokens {
+
+        /**
+         * 访问令牌
+         */
+        private final String accessToken;
+
+        /**
+         * 访问令牌有效期（秒）
+         */
+        private final long expiresIn;
+
+        /**
+         * 刷新令牌
+         */
+        private final String refreshToken;
+
+        /**
+         * 刷新令牌有效期（秒）
+         */
+        private final long refreshExpiresIn;
+    }
+}
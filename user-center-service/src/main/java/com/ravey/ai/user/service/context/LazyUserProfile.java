@@ -0,0 +1,71 @@
+package com.ravey.ai.user.service.context;
+
+import com.ravey.ai.user.api.dto.UsersDTO;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 延迟加载的用户信息
+ * 首次访问时才调用加载器，之后在本次请求内复用加载结果。
+ * 加载器会访问 Redis/数据库，使用 ReentrantLock 而非 synchronized，避免虚拟线程在加载期间固定载体线程
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+final class LazyUserProfile {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Supplier<UsersDTO> loader;
+    private volatile UsersDTO user;
+
+    private LazyUserProfile(Supplier<UsersDTO> loader, UsersDTO user) {
+        this.loader = loader;
+        this.user = user;
+    }
+
+    /**
+     * 已加载的用户信息
+     */
+    static LazyUserProfile of(UsersDTO user) {
+        return new LazyUserProfile(null, user);
+    }
+
+    /**
+     * 首次访问时通过加载器获取的用户信息
+     */
+    static LazyUserProfile lazy(Supplier<UsersDTO> loader) {
+        return new LazyUserProfile(loader, null);
+    }
+
+    /**
+     * 获取用户信息，首次访问时加载
+     *
+     * @return 用户信息
+     */
+    UsersDTO get() {
+        UsersDTO result = user;
+        if (result != null) {
+            return result;
+        }
+        lock.lock();
+        try {
+            if (user == null && loader != null) {
+                user = loader.get();
+                loader = null;
+            }
+            return user;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 用户信息是否已加载
+     *
+     * @return true-已加载
+     */
+    boolean isLoaded() {
+        return user != null;
+    }
+}
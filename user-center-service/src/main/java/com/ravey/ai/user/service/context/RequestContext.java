@@ -0,0 +1,82 @@
+package com.ravey.ai.user.service.context;
+
+import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
+
+import java.util.function.Supplier;
+
+/**
+ * 请求上下文
+ * 一次请求的认证信息（已验签令牌、用户ID、appId、延迟加载的用户信息）的不可变载体。
+ * 实例在请求内及其派生的异步任务间共享引用，不做拷贝；用户信息只加载一次。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public final class RequestContext {
+
+    private final VerifiedToken verifiedToken;
+    private final LazyUserProfile profile;
+
+    private RequestContext(VerifiedToken verifiedToken, LazyUserProfile profile) {
+        this.verifiedToken = verifiedToken;
+        this.profile = profile;
+    }
+
+    /**
+     * 创建请求上下文，用户信息在首次访问时通过加载器获取
+     *
+     * @param verifiedToken 已验签的令牌声明
+     * @param userLoader    用户信息加载器
+     * @return 请求上下文
+     */
+    public static RequestContext of(VerifiedToken verifiedToken, Supplier<UsersDTO> userLoader) {
+        return new RequestContext(verifiedToken, LazyUserProfile.lazy(userLoader));
+    }
+
+    /**
+     * 创建请求上下文，用户信息已知
+     *
+     * @param verifiedToken 已验签的令牌声明，可为null
+     * @param user          用户信息
+     * @return 请求上下文
+     */
+    public static RequestContext of(VerifiedToken verifiedToken, UsersDTO user) {
+        return new RequestContext(verifiedToken, LazyUserProfile.of(user));
+    }
+
+    public VerifiedToken getVerifiedToken() {
+        return verifiedToken;
+    }
+
+    /**
+     * 获取用户ID
+     * 优先取自已验签的令牌，不会触发用户信息加载
+     *
+     * @return 用户ID
+     */
+    public Long getUserId() {
+        if (verifiedToken != null) {
+            return verifiedToken.getUserId();
+        }
+        UsersDTO user = profile.isLoaded() ? profile.get() : null;
+        return user != null ? user.getId() : null;
+    }
+
+    public String getAppId() {
+        return verifiedToken != null ? verifiedToken.getAppId() : null;
+    }
+
+    public String getToken() {
+        return verifiedToken != null ? verifiedToken.getToken() : null;
+    }
+
+    /**
+     * 获取用户信息（首次访问时加载）
+     *
+     * @return 用户信息
+     */
+    public UsersDTO getUser() {
+        return profile.get();
+    }
+}
@@ -1,11 +1,19 @@
 package com.ravey.ai.user.service.context;
 
 import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.function.Supplier;
+
 /**
  * 用户上下文工具类
- * 用于在请求处理过程中传递用户信息
+ * 用于在请求处理过程中传递用户信息。
+ * 上下文为单个不可变的 {@link RequestContext}，按作用域绑定（与 ScopedValue 的 where/run 语义一致）：
+ * 作用域结束时恢复外层上下文。异步任务通过 {@link #wrap(Runnable)} 或
+ * {@link UserContextTaskDecorator} 共享提交方的上下文引用。
+ * <p>
+ * ScopedValue 在 Java 21 中仍为预览特性，当前以单个 ThreadLocal 实现绑定，调用方不依赖具体实现。
  *
  * @author ravey
  * @since 1.0.0
@@ -13,47 +21,114 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UserContext {
 
-    private static final ThreadLocal<UsersDTO> USER_THREAD_LOCAL = new ThreadLocal<>();
-    private static final ThreadLocal<String> TOKEN_THREAD_LOCAL = new ThreadLocal<>();
-    private static final ThreadLocal<String> APP_ID_THREAD_LOCAL = new ThreadLocal<>();
+    private static final ThreadLocal<RequestContext> CONTEXT = new ThreadLocal<>();
+
+    /**
+     * 获取当前请求上下文
+     *
+     * @return 请求上下文，未绑定时返回null
+     */
+    public static RequestContext current() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * 在当前线程绑定请求上下文，关闭返回的作用域时恢复外层上下文
+     *
+     * @param context 请求上下文
+     * @return 作用域
+     */
+    public static Scope open(RequestContext context) {
+        RequestContext previous = CONTEXT.get();
+        CONTEXT.set(context);
+        log.debug("绑定用户上下文: userId={}", context != null ? context.getUserId() : null);
+        return new Scope(previous);
+    }
+
+    /**
+     * 在指定上下文中执行任务
+     *
+     * @param context 请求上下文
+     * @param task    任务
+     */
+    public static void runWith(RequestContext context, Runnable task) {
+        try (Scope ignored = open(context)) {
+            task.run();
+        }
+    }
+
+    /**
+     * 在指定上下文中执行任务并返回结果
+     *
+     * @param context 请求上下文
+     * @param task    任务
+     * @return 任务结果
+     */
+    public static <T> T callWith(RequestContext context, Supplier<T> task) {
+        try (Scope ignored = open(context)) {
+            return task.get();
+        }
+    }
+
+    /**
+     * 包装任务，使其在执行线程上沿用当前的请求上下文
+     * 适用于 CompletableFuture.runAsync 等手动派发的场景
+     *
+     * @param task 任务
+     * @return 包装后的任务
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestContext context = CONTEXT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> runWith(context, task);
+    }
 
     /**
-     * 设置当前用户信息
+     * 包装任务，使其在执行线程上沿用当前的请求上下文
+     * 适用于 CompletableFuture.supplyAsync 等手动派发的场景
      *
-     * @param user 用户信息
+     * @param task 任务
+     * @return 包装后的任务
      */
-    public static void setCurrentUser(UsersDTO user) {
-        USER_THREAD_LOCAL.set(user);
-        log.debug("设置当前用户信息: userId={}", user != null ? user.getId() : null);
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        RequestContext context = CONTEXT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> callWith(context, task);
     }
 
     /**
-     * 获取当前用户信息
+     * 获取当前用户信息（首次访问时加载）
      *
      * @return 当前用户信息
      */
     public static UsersDTO getCurrentUser() {
-        return USER_THREAD_LOCAL.get();
+        RequestContext context = CONTEXT.get();
+        return context != null ? context.getUser() : null;
     }
 
     /**
      * 获取当前用户ID
+     * 优先取自已验签的令牌，不会触发用户信息加载
      *
      * @return 用户ID
      */
     public static Long getCurrentUserId() {
-        UsersDTO user = getCurrentUser();
-        return user != null ? user.getId() : null;
+        RequestContext context = CONTEXT.get();
+        return context != null ? context.getUserId() : null;
     }
 
     /**
-     * 设置当前请求的JWT Token
+     * 获取当前请求已验签的令牌
      *
-     * @param token JWT Token
+     * @return 已验签的令牌声明
      */
-    public static void setCurrentToken(String token) {
-        TOKEN_THREAD_LOCAL.set(token);
-        log.debug("设置当前请求Token");
+    public static VerifiedToken getVerifiedToken() {
+        RequestContext context = CONTEXT.get();
+        return context != null ? context.getVerifiedToken() : null;
     }
 
     /**
@@ -62,17 +137,8 @@ public class UserContext {
      * @return JWT Token
      */
     public static String getCurrentToken() {
-        return TOKEN_THREAD_LOCAL.get();
-    }
-
-    /**
-     * 设置当前请求的应用ID
-     *
-     * @param appId 应用ID
-     */
-    public static void setCurrentAppId(String appId) {
-        APP_ID_THREAD_LOCAL.set(appId);
-        log.debug("设置当前应用ID: {}", appId);
+        RequestContext context = CONTEXT.get();
+        return context != null ? context.getToken() : null;
     }
 
     /**
@@ -81,7 +147,8 @@ public class UserContext {
      * @return 应用ID
      */
     public static String getCurrentAppId() {
-        return APP_ID_THREAD_LOCAL.get();
+        RequestContext context = CONTEXT.get();
+        return context != null ? context.getAppId() : null;
     }
 
     /**
@@ -90,7 +157,7 @@ public class UserContext {
      * @return true-已登录，false-未登录
      */
     public static boolean isUserLoggedIn() {
-        return getCurrentUser() != null;
+        return getCurrentUserId() != null;
     }
 
     /**
@@ -106,12 +173,10 @@ public class UserContext {
 
     /**
      * 清除当前线程的用户上下文信息
-     * 通常在请求结束时调用
+     * 正常情况下由 {@link Scope#close()} 恢复，此方法仅用于线程复用前的兜底清理
      */
     public static void clear() {
-        USER_THREAD_LOCAL.remove();
-        TOKEN_THREAD_LOCAL.remove();
-        APP_ID_THREAD_LOCAL.remove();
+        CONTEXT.remove();
         log.debug("清除用户上下文信息");
     }
 
@@ -121,10 +186,31 @@ public class UserContext {
      * @return 上下文摘要
      */
     public static String getContextSummary() {
-        UsersDTO user = getCurrentUser();
+        Long userId = getCurrentUserId();
         String appId = getCurrentAppId();
         return String.format("userId=%s, appId=%s", 
-                user != null ? user.getId() : "null", 
+                userId != null ? userId : "null", 
                 appId != null ? appId : "null");
     }
-}
\ No newline at end of file
+
+    /**
+     * 上下文作用域，关闭时恢复外层上下文
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestContext previous;
+
+        private Scope(RequestContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ravey.ai.user.service.context;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 用户上下文任务装饰器
+ * 在任务提交时捕获当前请求上下文，并在执行线程上以作用域方式绑定，执行结束后恢复。
+ * 注册为 Bean 后由 Spring Boot 自动应用到 @Async 使用的任务执行器（包括虚拟线程执行器）。
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public class UserContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return UserContext.wrap(runnable);
+    }
+}
@@ -30,6 +30,7 @@ public class AppsConverter {
         dto.setAppSecret(entity.getAppSecret());
         dto.setDescription(entity.getDescription());
         dto.setStatus(entity.getStatus());
+        dto.setTokenMode(entity.getTokenMode());
         
         return dto;
     }
@@ -52,6 +53,7 @@ public class AppsConverter {
         entity.setAppSecret(dto.getAppSecret());
         entity.setDescription(dto.getDescription());
         entity.setStatus(dto.getStatus());
+        entity.setTokenMode(dto.getTokenMode());
         
         return entity;
     }
@@ -46,4 +46,10 @@ public class Apps extends BaseEntity {
      */
     @TableField("status")
     private Integer status;
+
+    /**
+     * 令牌模式：0-JWT，1-不透明会话令牌
+     */
+    @TableField("token_mode")
+    private Integer tokenMode;
 }
\ No newline at end of file
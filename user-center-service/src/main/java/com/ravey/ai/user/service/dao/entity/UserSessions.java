@@ -32,10 +32,10 @@ public class UserSessions extends BaseEntity {
     private Long appId;
 
     /**
-     * 会话令牌
+     * 会话令牌摘要（SHA-256 前128位，32位十六进制），令牌本身不落库
      */
-    @TableField("session_token")
-    private String sessionToken;
+    @TableField("token_digest")
+    private String tokenDigest;
 
     /**
      * 登录IP
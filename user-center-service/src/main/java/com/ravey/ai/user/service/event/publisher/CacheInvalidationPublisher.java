@@ -0,0 +1,76 @@
+package com.ravey.ai.user.service.event.publisher;
+
+import com.ravey.ai.user.api.constants.CacheConstants;
+import com.ravey.ai.user.api.utils.TokenDigest;
+import com.ravey.ai.user.service.cache.NearCache;
+import com.ravey.ai.user.service.cache.TokenRevocationFilter;
+import com.ravey.ai.user.service.cache.TwoLevelCache;
+import com.ravey.ai.user.service.cache.UserTokenEpochs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 近端缓存失效消息发布者
+ * 通过 Redis 发布/订阅通知所有节点清除对应的近端缓存条目
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    /**
+     * 发布会话失效消息
+     *
+     * @param digest 令牌摘要
+     */
+    public void publishSessionInvalidation(TokenDigest digest) {
+        publish(NearCache.SESSION_MESSAGE_PREFIX + digest);
+    }
+
+    /**
+     * 发布二级缓存的一级缓存失效消息
+     *
+     * @param message 发布节点、键族和缓存键，格式：{nodeId}:{family}:{key}
+     */
+    public void publishTierInvalidation(String message) {
+        publish(TwoLevelCache.TIER_MESSAGE_PREFIX + message);
+    }
+
+    /**
+     * 发布令牌吊销消息
+     *
+     * @param digest 令牌摘要
+     */
+    public void publishRevocation(TokenDigest digest) {
+        publish(TokenRevocationFilter.REVOKED_MESSAGE_PREFIX + digest);
+    }
+
+    /**
+     * 发布用户令牌版本变更消息
+     *
+     * @param userId 用户ID
+     * @param epoch  新版本
+     */
+    public void publishEpochChange(Long userId, long epoch) {
+        publish(UserTokenEpochs.EPOCH_MESSAGE_PREFIX + userId + ":" + epoch);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(CacheConstants.NEAR_CACHE_INVALIDATION_CHANNEL, message);
+            log.debug("发布近端缓存失效消息: {}", message);
+        } catch (Exception e) {
+            // 发布失败时其他节点依赖近端缓存过期时间兜底
+            log.error("发布近端缓存失效消息失败: {}", message, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ravey.ai.user.service.event.subscriber;
+
+import com.ravey.ai.user.service.cache.NearCache;
+import com.ravey.ai.user.service.cache.TokenRevocationFilter;
+import com.ravey.ai.user.service.cache.TwoLevelCache;
+import com.ravey.ai.user.service.cache.UserTokenEpochs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 近端缓存失效消息订阅者
+ * 收到失效消息后清除本节点近端缓存中的对应条目，吊销消息写入本节点的令牌吊销过滤器，
+ * 令牌版本变更消息更新本节点的版本缓存，二级缓存失效消息清除本节点的一级缓存
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationSubscriber implements MessageListener {
+
+    @Qualifier("redisTemplate")
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    private final NearCache nearCache;
+
+    private final TokenRevocationFilter tokenRevocationFilter;
+
+    private final UserTokenEpochs userTokenEpochs;
+
+    private final TwoLevelCache twoLevelCache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        log.debug("收到近端缓存失效消息: {}", body);
+        String text = body != null ? body.toString() : null;
+        if (text != null && text.startsWith(TokenRevocationFilter.REVOKED_MESSAGE_PREFIX)) {
+            tokenRevocationFilter.handleRevocation(text.substring(TokenRevocationFilter.REVOKED_MESSAGE_PREFIX.length()));
+        } else if (text != null && text.startsWith(UserTokenEpochs.EPOCH_MESSAGE_PREFIX)) {
+            userTokenEpochs.handleEpochChange(text.substring(UserTokenEpochs.EPOCH_MESSAGE_PREFIX.length()));
+        } else if (text != null && text.startsWith(TwoLevelCache.TIER_MESSAGE_PREFIX)) {
+            twoLevelCache.handleInvalidation(text.substring(TwoLevelCache.TIER_MESSAGE_PREFIX.length()));
+        } else {
+            nearCache.handleInvalidation(text);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @author ravey
@@ -18,6 +19,7 @@ import org.springframework.context.annotation.ComponentScan;
 @ComponentScan(basePackages = {"com.ravey.ai.user"})
 @MapperScan("com.ravey.ai.user.service.dao.mapper")
 @EnableGlobalExceptionHandler
+@EnableScheduling
 public class UserCenterApplication {
 
     public static void main(String[] args) {
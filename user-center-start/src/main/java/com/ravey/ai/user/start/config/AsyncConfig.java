@@ -0,0 +1,23 @@
+package com.ravey.ai.user.start.config;
+
+import com.ravey.ai.user.service.context.UserContextTaskDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * 异步任务配置
+ * 任务装饰器由 Spring Boot 自动应用到默认任务执行器，@Async 方法可直接读取提交方的用户上下文
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public UserContextTaskDecorator userContextTaskDecorator() {
+        return new UserContextTaskDecorator();
+    }
+}
@@ -0,0 +1,31 @@
+package com.ravey.ai.user.start.config;
+
+import com.ravey.ai.user.web.filter.AuthRejection;
+import com.ravey.ai.user.web.filter.MiniAppTokenFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 请求鉴权监控指标配置
+ * 按拒绝原因注册鉴权拒绝次数，拒绝日志为采样输出，拒绝量以此指标为准
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Configuration
+public class AuthMetricsConfig {
+
+    @Bean
+    public MeterBinder authRejectionMetrics(MiniAppTokenFilter miniAppTokenFilter) {
+        return registry -> {
+            for (AuthRejection rejection : AuthRejection.values()) {
+                FunctionCounter.builder("user_center.auth.rejections", miniAppTokenFilter,
+                                filter -> filter.getRejectCount(rejection))
+                        .tag("reason", rejection.name().toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.ravey.ai.user.start.config;
+
+import com.ravey.ai.user.api.utils.JwtUtils;
+import com.ravey.ai.user.api.utils.LocalCache;
+import com.ravey.ai.user.service.cache.CacheFamily;
+import com.ravey.ai.user.service.cache.MemoryCacheService;
+import com.ravey.ai.user.service.cache.NearCache;
+import com.ravey.ai.user.service.cache.TokenRevocationFilter;
+import com.ravey.ai.user.service.cache.TwoLevelCache;
+import com.ravey.ai.user.service.cache.UserTokenEpochs;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地缓存监控指标配置
+ * 将进程内缓存的命中、未命中、淘汰次数和容量，二级缓存各键族的远端命中和未命中次数，
+ * 以及令牌吊销过滤器的命中和误判次数注册到 Micrometer
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    @Bean
+    public MeterBinder jwtTokenCacheMetrics(JwtUtils jwtUtils) {
+        return registry -> bindLocalCache(registry, jwtUtils.getTokenCache());
+    }
+
+    @Bean
+    public MeterBinder nearCacheMetrics(NearCache nearCache) {
+        return registry -> {
+            bindLocalCache(registry, nearCache.getSessions());
+            bindLocalCache(registry, nearCache.getOpaqueSessions());
+        };
+    }
+
+    @Bean
+    public MeterBinder twoLevelCacheMetrics(TwoLevelCache twoLevelCache) {
+        return registry -> {
+            twoLevelCache.getLocalTiers().forEach(localTier -> bindLocalCache(registry, localTier));
+            for (CacheFamily family : CacheFamily.values()) {
+                FunctionCounter.builder("user_center.remote_cache.hits", twoLevelCache,
+                                cache -> cache.getRemoteHitCount(family))
+                        .tag("family", family.getConfigName())
+                        .register(registry);
+                FunctionCounter.builder("user_center.remote_cache.misses", twoLevelCache,
+                                cache -> cache.getRemoteMissCount(family))
+                        .tag("family", family.getConfigName())
+                        .register(registry);
+                FunctionCounter.builder("user_center.cache.loads", twoLevelCache,
+                                cache -> cache.getLoadCount(family))
+                        .tag("family", family.getConfigName())
+                        .register(registry);
+                FunctionCounter.builder("user_center.cache.coalesced_loads", twoLevelCache,
+                                cache -> cache.getCoalescedLoadCount(family))
+                        .tag("family", family.getConfigName())
+                        .register(registry);
+                FunctionCounter.builder("user_center.cache.negative_hits", twoLevelCache,
+                                cache -> cache.getNegativeHitCount(family))
+                        .tag("family", family.getConfigName())
+                        .register(registry);
+                FunctionCounter.builder("user_center.cache.refreshes", twoLevelCache,
+                                cache -> cache.getRefreshCount(family))
+                        .tag("family", family.getConfigName())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder memoryCacheMetrics(ObjectProvider<MemoryCacheService> memoryCacheService) {
+        return registry -> memoryCacheService.ifAvailable(cache -> {
+            FunctionCounter.builder("user_center.memory_cache.hits", cache, MemoryCacheService::getHitCount)
+                    .register(registry);
+            FunctionCounter.builder("user_center.memory_cache.misses", cache, MemoryCacheService::getMissCount)
+                    .register(registry);
+            FunctionCounter.builder("user_center.memory_cache.evictions", cache, MemoryCacheService::getEvictionCount)
+                    .register(registry);
+            FunctionCounter.builder("user_center.memory_cache.expirations", cache, MemoryCacheService::getExpirationCount)
+                    .register(registry);
+            Gauge.builder("user_center.memory_cache.size", cache, MemoryCacheService::size)
+                    .register(registry);
+            Gauge.builder("user_center.memory_cache.weight", cache, MemoryCacheService::getWeight)
+                    .register(registry);
+            Gauge.builder("user_center.memory_cache.max_weight", cache, MemoryCacheService::getMaximumWeight)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder userTokenEpochMetrics(UserTokenEpochs userTokenEpochs) {
+        return registry -> bindLocalCache(registry, userTokenEpochs.getEpochs());
+    }
+
+    @Bean
+    public MeterBinder tokenRevocationMetrics(TokenRevocationFilter tokenRevocationFilter) {
+        return registry -> {
+            FunctionCounter.builder("user_center.revocation_filter.positives", tokenRevocationFilter,
+                            TokenRevocationFilter::getPositiveCount)
+                    .register(registry);
+            FunctionCounter.builder("user_center.revocation_filter.false_positives", tokenRevocationFilter,
+                            TokenRevocationFilter::getFalsePositiveCount)
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 注册单个本地缓存的指标
+     *
+     * @param registry 指标注册表
+     * @param cache    本地缓存
+     */
+    static void bindLocalCache(MeterRegistry registry, LocalCache<?, ?> cache) {
+        String name = cache.getName();
+        FunctionCounter.builder("user_center.local_cache.hits", cache, LocalCache::getHitCount)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("user_center.local_cache.misses", cache, LocalCache::getMissCount)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("user_center.local_cache.evictions", cache, LocalCache::getEvictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("user_center.local_cache.size", cache, LocalCache::size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("user_center.local_cache.hit_rate", cache, LocalCache::getHitRate)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
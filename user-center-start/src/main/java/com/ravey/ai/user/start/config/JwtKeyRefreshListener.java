@@ -0,0 +1,30 @@
+package com.ravey.ai.user.start.config;
+
+import com.ravey.ai.user.api.utils.JwtSigningKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * JWT密钥刷新监听
+ * Nacos 推送的配置变更涉及 jwt.hmac 时重新加载签名密钥，无需重启即可轮换密钥
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtKeyRefreshListener implements ApplicationListener<EnvironmentChangeEvent> {
+
+    private static final String HMAC_PROPERTY_PREFIX = "jwt.hmac.";
+
+    private final JwtSigningKeys signingKeys;
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(HMAC_PROPERTY_PREFIX))) {
+            signingKeys.reload();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ravey.ai.user.start.config;
+
+import com.ravey.ai.user.service.cache.CompactValueSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis 缓存值编码配置
+ * 在 redisTemplate 初始化后，用 {@link CompactValueSerializer} 包装其原有的值序列化器，
+ * 其他 Bean 拿到模板时已是新的序列化器
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Configuration
+public class RedisCodecConfig {
+
+    private static final String REDIS_TEMPLATE_BEAN = "redisTemplate";
+
+    @Bean
+    public static BeanPostProcessor compactValueSerializerPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!REDIS_TEMPLATE_BEAN.equals(beanName) || !(bean instanceof RedisTemplate)) {
+                    return bean;
+                }
+                boolean compactWrite = environment.getProperty("cache.codec.compact-write", Boolean.class, false);
+                int compressThreshold = environment.getProperty("cache.codec.compress-threshold", Integer.class, 1024);
+                RedisTemplate<Object, Object> template = (RedisTemplate<Object, Object>) bean;
+                RedisSerializer<Object> original = (RedisSerializer<Object>) template.getValueSerializer();
+                template.setValueSerializer(new CompactValueSerializer(original, compactWrite, compressThreshold));
+                log.info("Redis 缓存值紧凑编码已启用: compactWrite={}, compressThreshold={}", compactWrite, compressThreshold);
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.ravey.ai.user.start.config;
+
+import com.ravey.ai.user.api.constants.CacheConstants;
+import com.ravey.ai.user.service.event.subscriber.CacheInvalidationSubscriber;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 消息订阅配置
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CacheInvalidationSubscriber cacheInvalidationSubscriber) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationSubscriber,
+                new ChannelTopic(CacheConstants.NEAR_CACHE_INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ravey.ai.user.start.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 虚拟线程运行模式检查
+ * Spring Boot 在 Java 21 以下的运行时会静默忽略 spring.threads.virtual.enabled，
+ * 这里在启动时明确输出实际生效的模式，避免误以为已切换到虚拟线程
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final int VIRTUAL_THREAD_MIN_VERSION = 21;
+
+    @PostConstruct
+    public void checkRuntime() {
+        int version = Runtime.version().feature();
+        if (version < VIRTUAL_THREAD_MIN_VERSION) {
+            log.warn("已配置虚拟线程模式，但当前运行时为 Java {}，将继续使用平台线程池处理请求", version);
+        } else {
+            log.info("虚拟线程模式已启用: Java {}", version);
+        }
+    }
+}
@@ -6,6 +6,7 @@ CREATE TABLE IF NOT EXISTS apps (
     app_secret VARCHAR(200) NOT NULL,
     description VARCHAR(500),
     status TINYINT DEFAULT 1,
+    token_mode TINYINT DEFAULT 0,
     creator VARCHAR(50),
     creator_id VARCHAR(50),
     create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
@@ -53,7 +54,7 @@ CREATE TABLE IF NOT EXISTS user_sessions (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     user_id BIGINT NOT NULL,
     app_id BIGINT,
-    session_token VARCHAR(255) NOT NULL,
+    token_digest CHAR(32) NOT NULL,
     login_ip VARCHAR(45),
     user_agent VARCHAR(500),
     expire_time DATETIME NOT NULL,
@@ -0,0 +1,21 @@
+package com.ravey.ai.user.web.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 公开接口标记
+ * 标注在控制器类或方法上，表示该接口无需登录即可访问。
+ * 启动时统一扫描并编译为路由表，由 {@link com.ravey.ai.user.web.filter.MiniAppTokenFilter} 读取
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface PublicEndpoint {
+}
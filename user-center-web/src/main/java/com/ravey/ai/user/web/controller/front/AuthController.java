@@ -4,6 +4,8 @@ import com.ravey.ai.user.api.model.req.*;
 import com.ravey.ai.user.api.model.res.*;
 import com.ravey.ai.user.api.service.AuthService;
 import com.ravey.ai.user.api.service.UsersService;
+import com.ravey.ai.user.service.context.UserContext;
+import com.ravey.ai.user.web.annotation.PublicEndpoint;
 import com.ravey.common.service.web.result.HttpResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.annotation.Resource;
+import jakarta.validation.Valid;
 
 /**
  * 认证控制器
@@ -40,6 +43,7 @@ public class AuthController {
      * @return 访问令牌信息
      */
     @PostMapping("/wxMiniAppLogin")
+    @PublicEndpoint
     @Operation(summary = "微信小程序登录", description = "通过微信小程序登录凭证进行用户登录")
     public HttpResult<MiniProgramLoginRes> wxMiniAppLogin(@RequestBody MiniProgramLoginReq request) {
         log.info("微信小程序登录请求: appId={}", request.getAppId());
@@ -48,9 +52,6 @@ public class AuthController {
             // 调用服务层进行登录
             MiniProgramLoginRes serviceRes = authService.miniProgramLogin(request);
 
-            // 设置令牌过期时间
-            serviceRes.setExpiresIn(86400L); // 24小时
-
             log.info("微信小程序登录成功: appId={}, userId={}",
                     request.getAppId(),
                     serviceRes.getUserInfo() != null ? serviceRes.getUserInfo().getId() : null);
@@ -63,7 +64,36 @@ public class AuthController {
         }
     }
 
+    /**
+     * 刷新访问令牌
+     * 刷新令牌一次有效，成功后返回新的访问令牌和刷新令牌
+     *
+     * @param request 刷新令牌请求
+     * @return 新的令牌信息
+     */
+    @PostMapping("/token/refresh")
+    @PublicEndpoint
+    @Operation(summary = "刷新访问令牌", description = "使用刷新令牌换取新的访问令牌，刷新令牌随之轮换")
+    public HttpResult<TokenRefreshRes> refreshToken(@Valid @RequestBody TokenRefreshReq request) {
+        return HttpResult.success(authService.refreshToken(request));
+    }
+
+    /**
+     * 退出登录
+     * 吊销当前访问令牌（开启本地吊销过滤器时各节点同步生效），请求体携带刷新令牌时一并作废
+     *
+     * @param request 退出登录请求，可为空
+     * @return 空
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "退出登录", description = "吊销当前访问令牌，可同时作废刷新令牌")
+    public HttpResult<Void> logout(@RequestBody(required = false) LogoutReq request) {
+        authService.logout(UserContext.getCurrentToken(), request);
+        return HttpResult.success(null);
+    }
+
     @PostMapping("/qr/generate")
+    @PublicEndpoint
     @Operation(summary = "生成扫码登录二维码", description = "网页端生成二维码，用于小程序扫码登录")
     public HttpResult<QrGenerateRes> generateQr(@RequestBody QrGenerateReq request) {
         QrGenerateRes res = authService.generateQr(request);
@@ -71,6 +101,7 @@ public class AuthController {
     }
 
     @PostMapping("/qr/check")
+    @PublicEndpoint
     @Operation(summary = "查询二维码状态", description = "网页端轮询二维码状态，确认后返回token")
     public HttpResult<QrCheckRes> checkQr(@RequestBody QrCheckReq request) {
         QrCheckRes res = authService.checkQr(request);
@@ -92,6 +123,7 @@ public class AuthController {
     }
 
     @PostMapping("/qr/wxacode")
+    @PublicEndpoint
     @Operation(summary = "生成小程序码", description = "生成携带登录场景值的小程序码")
     public HttpResult<WxaCodeRes> generateWxacode(@RequestBody WxaCodeReq request) {
         WxaCodeRes res = authService.generateWxaCode(request);
@@ -99,6 +131,7 @@ public class AuthController {
     }
 
     @PostMapping("/email/sendCode")
+    @PublicEndpoint
     @Operation(summary = "发送邮箱验证码", description = "向指定邮箱发送验证码")
     public HttpResult<Void> sendEmailCode(@RequestBody EmailSendCodeReq req) {
         usersService.sendEmailCode(req);
@@ -106,18 +139,21 @@ public class AuthController {
     }
 
     @PostMapping("/email/register")
+    @PublicEndpoint
     @Operation(summary = "邮箱注册", description = "通过邮箱和验证码注册新用户")
     public HttpResult<LoginRes> registerByEmail(@RequestBody EmailRegisterReq req) {
         return HttpResult.success(usersService.registerByEmail(req));
     }
 
     @PostMapping("/email/login")
+    @PublicEndpoint
     @Operation(summary = "邮箱登录", description = "支持密码登录或验证码登录")
     public HttpResult<LoginRes> loginByEmail(@RequestBody EmailLoginReq req) {
         return HttpResult.success(usersService.loginByEmail(req));
     }
 
     @PostMapping("/email/resetPassword")
+    @PublicEndpoint
     @Operation(summary = "重置密码", description = "通过验证码验证后重置密码")
     public HttpResult<Void> resetPassword(@RequestBody PasswordResetReq req) {
         usersService.resetPassword(req);
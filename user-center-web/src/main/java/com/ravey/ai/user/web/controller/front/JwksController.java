@@ -0,0 +1,51 @@
+package com.ravey.ai.user.web.controller.front;
+
+import com.ravey.ai.user.api.utils.JwtSigningKeys;
+import com.ravey.ai.user.web.annotation.PublicEndpoint;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.annotation.Resource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * JWKS 控制器
+ * 发布令牌验签公钥，下游服务缓存后可在本地校验令牌，无需回调用户中心
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@RestController
+@Tag(name = "令牌公钥", description = "JWT验签公钥发布接口")
+public class JwksController {
+
+    @Resource
+    private JwtSigningKeys signingKeys;
+
+    /**
+     * 公钥缓存时间（秒），密钥轮换时新公钥需提前发布至少这么久
+     */
+    @Value("${jwt.signing.jwks-max-age:300}")
+    private long jwksMaxAge;
+
+    /**
+     * 获取 JWKS
+     * 按 RFC 7517 返回原始 JSON（不包装为 HttpResult），以便标准 JWT 库直接使用
+     *
+     * @return JWKS
+     */
+    @GetMapping("/.well-known/jwks.json")
+    @PublicEndpoint
+    @Operation(summary = "获取JWKS", description = "获取JWT验签公钥集合")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(jwksMaxAge)).cachePublic())
+                .body(signingKeys.getJwks());
+    }
+}
@@ -51,22 +51,22 @@ public class UsersController {
     @GetMapping("/me")
     @Operation(summary = "获取当前用户信息", description = "获取当前登录用户的详细信息")
     public HttpResult<UsersDTO> getCurrentUser() {
-        UsersDTO currentUser = UserContext.getCurrentUser();
-        if (currentUser == null) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
             throw new RuntimeException("未登录");
         }
         // 从数据库获取最新信息
-        return HttpResult.success(usersService.getById(currentUser.getId()));
+        return HttpResult.success(usersService.getById(currentUserId));
     }
 
     @PostMapping("/update")
     @Operation(summary = "更新用户信息", description = "更新当前用户的昵称和头像")
     public HttpResult<UsersDTO> updateUserInfo(@RequestBody UserUpdateReq req) {
-        UsersDTO currentUser = UserContext.getCurrentUser();
-        if (currentUser == null) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
             throw new RuntimeException("未登录");
         }
-        return HttpResult.success(usersService.update(currentUser.getId(), req));
+        return HttpResult.success(usersService.update(currentUserId, req));
     }
 
     @PostMapping("/avatar/upload")
@@ -0,0 +1,103 @@
+package com.ravey.ai.user.web.controller.internal;
+
+import com.ravey.ai.user.api.enums.UserErrorCode;
+import com.ravey.ai.user.api.model.req.TokenIntrospectReq;
+import com.ravey.ai.user.api.model.req.UserRevokeReq;
+import com.ravey.ai.user.api.model.res.TokenIntrospectRes;
+import com.ravey.ai.user.api.service.AuthService;
+import com.ravey.ai.user.web.annotation.PublicEndpoint;
+import com.ravey.common.api.model.ServiceException;
+import com.ravey.common.service.web.result.HttpResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 内部令牌校验控制器
+ * 供网关批量校验令牌，不经过用户令牌过滤器，通过内部调用密钥鉴权；未配置密钥时拒绝全部请求
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/auth")
+@Tag(name = "内部认证", description = "供网关等内部服务调用的认证接口")
+public class TokenIntrospectionController {
+
+    /**
+     * 内部调用密钥请求头
+     */
+    private static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+
+    @Resource
+    private AuthService authService;
+
+    /**
+     * 内部调用密钥，为空时接口不可用
+     */
+    @Value("${auth.internal.token:}")
+    private String internalToken;
+
+    @PostConstruct
+    public void warnIfInternalTokenMissing() {
+        if (!StringUtils.hasText(internalToken)) {
+            log.error("未配置 auth.internal.token，内部令牌校验接口将拒绝全部请求");
+        }
+    }
+
+    /**
+     * 批量校验令牌
+     *
+     * @param token   内部调用密钥
+     * @param request 批量校验请求
+     * @return 与请求顺序一致的校验结果
+     */
+    @PostMapping("/introspect")
+    @PublicEndpoint
+    @Operation(summary = "批量校验令牌", description = "一次请求校验多个令牌，返回有效性、用户ID、应用ID、过期时间和吊销状态")
+    public HttpResult<TokenIntrospectRes> introspect(@RequestHeader(value = INTERNAL_TOKEN_HEADER, required = false) String token,
+                                                     @RequestBody TokenIntrospectReq request) {
+        checkInternalToken(token);
+        return HttpResult.success(authService.introspectTokens(request));
+    }
+
+    /**
+     * 强制下线
+     * 递增用户令牌版本，该用户此前签发的全部访问令牌和刷新令牌立即失效
+     *
+     * @param token   内部调用密钥
+     * @param request 强制下线请求
+     * @return 空
+     */
+    @PostMapping("/revokeUser")
+    @PublicEndpoint
+    @Operation(summary = "强制下线", description = "吊销指定用户此前签发的全部令牌")
+    public HttpResult<Void> revokeUser(@RequestHeader(value = INTERNAL_TOKEN_HEADER, required = false) String token,
+                                       @Valid @RequestBody UserRevokeReq request) {
+        checkInternalToken(token);
+        authService.revokeUserSessions(request.getUserId());
+        return HttpResult.success(null);
+    }
+
+    private void checkInternalToken(String token) {
+        if (!StringUtils.hasText(internalToken) || token == null
+                || !MessageDigest.isEqual(internalToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("内部调用密钥校验失败");
+            throw new ServiceException(UserErrorCode.INTERNAL_TOKEN_INVALID);
+        }
+    }
+}
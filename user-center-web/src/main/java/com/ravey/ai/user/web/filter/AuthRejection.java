@@ -0,0 +1,51 @@
+package com.ravey.ai.user.web.filter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+/**
+ * 请求鉴权拒绝原因
+ * 每种原因对应固定的状态码和提示，响应体在启动时预先编码，拒绝时直接写出
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AuthRejection {
+
+    /**
+     * 请求未携带令牌
+     */
+    MISSING_TOKEN(HttpStatus.UNAUTHORIZED, "缺少认证token"),
+
+    /**
+     * 签名错误或已过期
+     */
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "token无效或已过期"),
+
+    /**
+     * 令牌缺少用户ID
+     */
+    MALFORMED_TOKEN(HttpStatus.UNAUTHORIZED, "token格式错误"),
+
+    /**
+     * 用户令牌版本已递增
+     */
+    EPOCH_REVOKED(HttpStatus.UNAUTHORIZED, "会话已失效，请重新登录"),
+
+    /**
+     * 会话已过期、已吊销或与令牌用户不一致
+     */
+    SESSION_INVALID(HttpStatus.UNAUTHORIZED, "会话已失效，请重新登录"),
+
+    /**
+     * 鉴权过程异常
+     */
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "认证服务异常");
+
+    private final HttpStatus status;
+
+    private final String message;
+}
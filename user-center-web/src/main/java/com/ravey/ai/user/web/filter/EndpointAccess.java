@@ -0,0 +1,20 @@
+package com.ravey.ai.user.web.filter;
+
+/**
+ * 接口访问策略
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+public enum EndpointAccess {
+
+    /**
+     * 公开接口，无需登录
+     */
+    PUBLIC,
+
+    /**
+     * 需要登录
+     */
+    AUTHENTICATED
+}
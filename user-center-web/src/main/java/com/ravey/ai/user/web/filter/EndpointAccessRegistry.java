@@ -0,0 +1,144 @@
+package com.ravey.ai.user.web.filter;
+
+import com.ravey.ai.user.web.annotation.PublicEndpoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 接口访问策略注册表
+ * 启动时扫描标注了 {@link PublicEndpoint} 的控制器方法，连同配置的公开路径前缀编译为不可变路由表；
+ * 含路径变量或通配符的公开接口按 Spring {@link PathPattern} 完整匹配，路由表未命中时才逐个匹配；
+ * /internal/ 下的接口不在网关前缀下登记，经网关访问时仍需登录。
+ * 运行期只读，未登记的路径默认需要登录
+ *
+ * @author ravey
+ * @since 1.0.16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EndpointAccessRegistry implements SmartInitializingSingleton {
+
+    private final ApplicationContext applicationContext;
+
+    /**
+     * 无需登录的基础设施路径前缀（健康检查、接口文档等）
+     */
+    @Value("${auth.public-path-prefixes:/health,/actuator,/swagger,/v3/api-docs,/favicon.ico}")
+    private List<String> publicPathPrefixes;
+
+    /**
+     * 网关转发时附加的路径前缀，公开接口在这些前缀下同样公开
+     */
+    @Value("${auth.gateway-path-prefixes:/api}")
+    private List<String> gatewayPathPrefixes;
+
+    /**
+     * 内部接口路径前缀，只允许内网直接访问，不在网关前缀下登记
+     */
+    private static final String INTERNAL_PATH_PREFIX = "/internal/";
+
+    private volatile RouteTable<EndpointAccess> routeTable = RouteTable.<EndpointAccess>builder().build();
+
+    /**
+     * 含路径变量或通配符的公开接口
+     */
+    private volatile List<PathPattern> publicPatterns = Collections.emptyList();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        RouteTable.Builder<EndpointAccess> builder = RouteTable.builder();
+        List<PathPattern> patterns = new ArrayList<>();
+        for (String prefix : publicPathPrefixes) {
+            builder.prefix(prefix, EndpointAccess.PUBLIC);
+        }
+
+        int count = 0;
+        Map<String, RequestMappingHandlerMapping> mappings =
+                applicationContext.getBeansOfType(RequestMappingHandlerMapping.class);
+        for (RequestMappingHandlerMapping mapping : mappings.values()) {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+                if (!isPublic(entry.getValue())) {
+                    continue;
+                }
+                for (String pattern : entry.getKey().getPatternValues()) {
+                    register(builder, patterns, pattern);
+                    if (!pattern.startsWith(INTERNAL_PATH_PREFIX)) {
+                        for (String gatewayPrefix : gatewayPathPrefixes) {
+                            register(builder, patterns, gatewayPrefix + pattern);
+                        }
+                    }
+                    count++;
+                }
+            }
+        }
+        routeTable = builder.build();
+        publicPatterns = Collections.unmodifiableList(patterns);
+        log.info("接口访问策略注册完成: 公开接口{}个, 公开路径前缀{}个", count, publicPathPrefixes.size());
+    }
+
+    /**
+     * 获取请求路径的访问策略
+     *
+     * @param requestURI 请求路径
+     * @return 访问策略
+     */
+    public EndpointAccess getAccess(String requestURI) {
+        EndpointAccess access = routeTable.lookup(requestURI);
+        if (access != null) {
+            return access;
+        }
+        List<PathPattern> patterns = publicPatterns;
+        if (!patterns.isEmpty()) {
+            PathContainer path = PathContainer.parsePath(requestURI);
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return EndpointAccess.PUBLIC;
+                }
+            }
+        }
+        return EndpointAccess.AUTHENTICATED;
+    }
+
+    private boolean isPublic(HandlerMethod handlerMethod) {
+        return AnnotatedElementUtils.hasAnnotation(handlerMethod.getMethod(), PublicEndpoint.class)
+                || AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), PublicEndpoint.class);
+    }
+
+    /**
+     * 登记路由：不含变量和通配符的路径精确匹配，否则解析为 {@link PathPattern} 完整匹配，不扩大公开范围
+     */
+    private void register(RouteTable.Builder<EndpointAccess> builder, List<PathPattern> patterns, String pattern) {
+        if (indexOfWildcard(pattern) < 0) {
+            builder.exact(pattern, EndpointAccess.PUBLIC);
+        } else {
+            patterns.add(PathPatternParser.defaultInstance.parse(pattern));
+        }
+    }
+
+    private int indexOfWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '{' || c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
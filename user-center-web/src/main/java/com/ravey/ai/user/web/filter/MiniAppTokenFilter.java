@@ -1,15 +1,22 @@
 package com.ravey.ai.user.web.filter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ravey.ai.user.service.context.RequestContext;
 import com.ravey.ai.user.service.context.UserContext;
 import com.ravey.ai.user.api.dto.UsersDTO;
+import com.ravey.ai.user.api.model.dto.VerifiedToken;
 import com.ravey.ai.user.service.cache.CacheService;
+import com.ravey.ai.user.service.cache.SessionProfile;
+import com.ravey.ai.user.service.cache.TokenRevocationFilter;
+import com.ravey.ai.user.service.cache.UserTokenEpochs;
 import com.ravey.ai.user.api.service.UsersService;
-import com.ravey.ai.user.api.utils.JwtUtils;
+import com.ravey.ai.user.api.utils.OpaqueTokens;
 import com.ravey.common.service.web.result.HttpResult;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -19,12 +26,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 小程序Token过滤器
- * 主要作用是校验JWT token，登录接口不拦截
+ * 主要作用是校验JWT token，标注了 {@link com.ravey.ai.user.web.annotation.PublicEndpoint} 的接口不拦截
  *
  * @author ravey
  * @since 1.0.0
@@ -34,31 +41,46 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MiniAppTokenFilter implements Filter {
 
-    private final JwtUtils jwtUtils;
     private final CacheService cacheService;
     private final UsersService usersService;
     private final ObjectMapper objectMapper;
+    private final EndpointAccessRegistry endpointAccessRegistry;
+    private final TokenRevocationFilter tokenRevocationFilter;
+    private final UserTokenEpochs userTokenEpochs;
 
     /**
-     * 不需要token验证的接口路径
+     * 拒绝日志采样间隔（秒），每种原因在一个间隔内最多输出一条 WARN 日志
      */
-    private static final List<String> EXCLUDE_PATHS = Arrays.asList(
-            "/front/auth/wxMiniAppLogin",
-            "/front/auth/qr/generate",
-            "/front/auth/qr/check",
-            "/front/auth/qr/wxacode",
-            "/front/auth/email/sendCode",
-            "/front/auth/email/register",
-            "/front/auth/email/login",
-            "/front/auth/email/resetPassword",
-            "/api/front/auth/qr/generate",
-            "/api/front/auth/qr/check",
-            "/api/front/auth/qr/wxacode",
-            "/health",
-            "/actuator",
-            "/swagger",
-            "/v3/api-docs",
-            "/favicon.ico");
+    @Value("${auth.reject-log.interval:10}")
+    private long rejectLogInterval;
+
+    /**
+     * 按拒绝原因预先编码的响应体（UTF-8）
+     */
+    private final byte[][] rejectionBodies = new byte[AuthRejection.values().length][];
+
+    /**
+     * 按拒绝原因累计的拒绝次数
+     */
+    private final LongAdder[] rejectCounts = new LongAdder[AuthRejection.values().length];
+
+    /**
+     * 按拒绝原因记录的上次 WARN 日志时间（尚未输出时为启动时间）及当时的累计次数
+     */
+    private final AtomicLong[] lastLoggedAt = new AtomicLong[AuthRejection.values().length];
+    private final AtomicLong[] lastLoggedCount = new AtomicLong[AuthRejection.values().length];
+
+    @PostConstruct
+    public void prepareRejections() throws JsonProcessingException {
+        long now = System.currentTimeMillis();
+        for (AuthRejection rejection : AuthRejection.values()) {
+            HttpResult<Object> result = HttpResult.failure(rejection.getStatus().value(), rejection.getMessage());
+            rejectionBodies[rejection.ordinal()] = objectMapper.writeValueAsBytes(result);
+            rejectCounts[rejection.ordinal()] = new LongAdder();
+            lastLoggedAt[rejection.ordinal()] = new AtomicLong(now);
+            lastLoggedCount[rejection.ordinal()] = new AtomicLong();
+        }
+    }
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -86,66 +108,69 @@ public class MiniAppTokenFilter implements Filter {
             // 获取token
             String token = extractToken(httpRequest);
             if (!StringUtils.hasText(token)) {
-                log.warn("请求缺少token: {}", requestURI);
-                writeErrorResponse(httpResponse, "缺少认证token", HttpStatus.UNAUTHORIZED);
+                reject(httpResponse, AuthRejection.MISSING_TOKEN, requestURI);
                 return;
             }
 
-            // 验证token格式和有效性
-            if (!jwtUtils.validateToken(token)) {
-                log.warn("token验证失败: {}", requestURI);
-                writeErrorResponse(httpResponse, "token无效或已过期", HttpStatus.UNAUTHORIZED);
+            // 验证token签名和有效期（只解析一次，后续复用验签结果）；不透明令牌直接读取会话
+            VerifiedToken verifiedToken = cacheService.verifyToken(token);
+            if (verifiedToken == null) {
+                reject(httpResponse, AuthRejection.INVALID_TOKEN, requestURI);
                 return;
             }
 
             // 从token中获取用户ID
-            Long userId = jwtUtils.getUserIdFromToken(token);
+            Long userId = verifiedToken.getUserId();
             if (userId == null) {
-                log.warn("无法从token中获取用户ID: {}", requestURI);
-                writeErrorResponse(httpResponse, "token格式错误", HttpStatus.UNAUTHORIZED);
+                reject(httpResponse, AuthRejection.MALFORMED_TOKEN, requestURI);
                 return;
             }
 
-            // 检查会话缓存
-            Long cachedUserId = cacheService.getUserSession(token);
-            if (cachedUserId == null || !cachedUserId.equals(userId)) {
-                log.warn("会话已失效或用户ID不匹配: tokenUserId={}, cachedUserId={}", userId, cachedUserId);
-                writeErrorResponse(httpResponse, "会话已失效，请重新登录", HttpStatus.UNAUTHORIZED);
+            // 检查用户令牌版本（修改密码等操作会递增版本，吊销此前签发的全部令牌）
+            if (!userTokenEpochs.isCurrent(verifiedToken)) {
+                reject(httpResponse, AuthRejection.EPOCH_REVOKED, requestURI);
                 return;
             }
 
-            // 获取用户信息
-            UsersDTO user = getUserInfo(userId);
-            if (user == null) {
-                log.warn("用户不存在: userId={}", userId);
-                writeErrorResponse(httpResponse, "用户不存在", HttpStatus.UNAUTHORIZED);
-                return;
+            UsersDTO cachedUser;
+            if (OpaqueTokens.isOpaque(token)) {
+                // 不透明令牌的声明取自会话本身，会话存在即有效，无需再次检查
+                cachedUser = null;
+            } else if (tokenRevocationFilter.isEnabled()) {
+                // 本地吊销过滤器判断，未命中时无需访问 Redis
+                if (tokenRevocationFilter.isRevoked(verifiedToken)) {
+                    reject(httpResponse, AuthRejection.SESSION_INVALID, requestURI);
+                    return;
+                }
+                cachedUser = null;
+            } else {
+                // 检查会话缓存（会话与用户信息一次往返读取）
+                SessionProfile sessionProfile = cacheService.getSessionProfile(token, userId);
+                Long cachedUserId = sessionProfile.getUserId();
+                if (cachedUserId == null || !cachedUserId.equals(userId)) {
+                    log.debug("会话用户ID不匹配: tokenUserId={}, cachedUserId={}", userId, cachedUserId);
+                    reject(httpResponse, AuthRejection.SESSION_INVALID, requestURI);
+                    return;
+                }
+                cachedUser = sessionProfile.getUser();
             }
 
-            // 设置用户上下文
-            UserContext.setCurrentUser(user);
-            UserContext.setCurrentToken(token);
+            // 设置用户上下文（appId 等声明随验签结果一并传递，用户信息在首次访问时才加载）
+            RequestContext context = RequestContext.of(verifiedToken, () -> getUserInfo(userId, cachedUser));
 
-            // 从token中获取appId并设置到上下文
-            String appId = jwtUtils.getAppIdFromToken(token);
-            if (StringUtils.hasText(appId)) {
-                UserContext.setCurrentAppId(appId);
-            }
-
-            log.debug("用户认证成功: userId={}, appId={}", userId, appId);
+            log.debug("用户认证成功: userId={}, appId={}", userId, verifiedToken.getAppId());
 
-            // 继续处理请求
-            chain.doFilter(request, response);
+            // 继续处理请求，请求结束时作用域自动恢复
+            try (UserContext.Scope ignored = UserContext.open(context)) {
+                chain.doFilter(request, response);
+            }
 
         } catch (Exception e) {
             log.error("Token过滤器处理异常", e);
             if (e instanceof ServletException){
                 throw (ServletException) e;
             }
-            writeErrorResponse(httpResponse, "认证服务异常", HttpStatus.INTERNAL_SERVER_ERROR);
-        } finally {
-            // 清理用户上下文
-            UserContext.clear();
+            reject(httpResponse, AuthRejection.INTERNAL_ERROR, httpRequest.getRequestURI());
         }
     }
 
@@ -161,7 +186,7 @@ public class MiniAppTokenFilter implements Filter {
      * @return 是否排除
      */
     private boolean isExcludePath(String requestURI) {
-        return EXCLUDE_PATHS.stream().anyMatch(requestURI::startsWith);
+        return endpointAccessRegistry.getAccess(requestURI) == EndpointAccess.PUBLIC;
     }
 
     /**
@@ -193,28 +218,25 @@ public class MiniAppTokenFilter implements Filter {
     }
 
     /**
-     * 获取用户信息（优先从缓存获取）
+     * 获取用户信息（优先使用随会话一并读取的缓存，其次Redis，最后数据库）
      *
-     * @param userId 用户ID
+     * @param userId     用户ID
+     * @param cachedUser 随会话一并读取的缓存用户信息
      * @return 用户信息
      */
-    private UsersDTO getUserInfo(Long userId) {
+    private UsersDTO getUserInfo(Long userId, UsersDTO cachedUser) {
         try {
-            // 先从缓存获取
-            UsersDTO cachedUser = cacheService.getUserInfo(userId);
             if (cachedUser != null) {
                 log.debug("从缓存获取用户信息: userId={}", userId);
                 return cachedUser;
             }
 
-            // 缓存中没有，从数据库获取
-            UsersDTO user = usersService.getById(userId);
-            if (user != null) {
-                // 缓存用户信息
-                cacheService.cacheUserInfo(user);
-                log.debug("从数据库获取用户信息并缓存: userId={}", userId);
-            }
-            return user;
+            // 缓存中没有时从数据库获取，同一用户同时只有一次回源
+            return cacheService.getUserInfo(userId, () -> {
+                UsersDTO user = usersService.getById(userId);
+                log.debug("从数据库获取用户信息: userId={}, found={}", userId, user != null);
+                return user;
+            });
         } catch (Exception e) {
             log.error("获取用户信息失败: userId={}", userId, e);
             return null;
@@ -222,25 +244,57 @@ public class MiniAppTokenFilter implements Filter {
     }
 
     /**
-     * 写入错误响应
+     * 获取指定原因的累计拒绝次数（用于监控）
+     *
+     * @param rejection 拒绝原因
+     * @return 拒绝次数
+     */
+    public long getRejectCount(AuthRejection rejection) {
+        return rejectCounts[rejection.ordinal()].sum();
+    }
+
+    /**
+     * 拒绝请求：计数、采样记录日志并写出预编码的响应体
+     * 大量无效令牌涌入时每次拒绝只有一次计数和一次写出，不做序列化，也不逐条输出 WARN 日志
+     *
+     * @param response   HTTP响应
+     * @param rejection  拒绝原因
+     * @param requestURI 请求URI
+     */
+    private void reject(HttpServletResponse response, AuthRejection rejection, String requestURI) {
+        int index = rejection.ordinal();
+        rejectCounts[index].increment();
+        log.debug("请求鉴权被拒绝: reason={}, uri={}", rejection, requestURI);
+
+        long now = System.currentTimeMillis();
+        AtomicLong last = lastLoggedAt[index];
+        long previous = last.get();
+        if (now - previous >= rejectLogInterval * 1000L && last.compareAndSet(previous, now)) {
+            long total = rejectCounts[index].sum();
+            long recent = total - lastLoggedCount[index].getAndSet(total);
+            log.warn("请求鉴权被拒绝: reason={}, uri={}, 最近{}秒内{}次", rejection, requestURI,
+                    (now - previous) / 1000L, recent);
+        }
+        writeRejection(response, rejection);
+    }
+
+    /**
+     * 写出预编码的错误响应
      *
-     * @param response HTTP响应
-     * @param message  错误消息
-     * @param status   HTTP状态码
+     * @param response  HTTP响应
+     * @param rejection 拒绝原因
      */
-    private void writeErrorResponse(HttpServletResponse response, String message, HttpStatus status) {
+    private void writeRejection(HttpServletResponse response, AuthRejection rejection) {
+        byte[] body = rejectionBodies[rejection.ordinal()];
         try {
-            response.setStatus(status.value());
+            response.setStatus(rejection.getStatus().value());
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
             response.setCharacterEncoding(StandardCharsets.UTF_8.name());
-
-            HttpResult<Object> result = HttpResult.failure(status.value(), message);
-            String jsonResponse = objectMapper.writeValueAsString(result);
-
-            response.getWriter().write(jsonResponse);
-            response.getWriter().flush();
-        } catch (IOException e) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            response.flushBuffer();
+        } catch (IOException | IllegalStateException e) {
             log.error("写入错误响应失败", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.ravey.ai.user.web.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 不可变路由表
+ * 由精确匹配哈希表和前缀字典树组成，查找耗时与路径长度成正比，与路由数量无关。
+ * 精确匹配优先，其次取最长匹配前缀
+ *
+ * @param <T> 路由值类型
+ * @author ravey
+ * @since 1.0.16
+ */
+public final class RouteTable<T> {
+
+    private final Map<String, T> exactRoutes;
+    private final Node<T> prefixRoot;
+
+    private RouteTable(Map<String, T> exactRoutes, Node<T> prefixRoot) {
+        this.exactRoutes = exactRoutes;
+        this.prefixRoot = prefixRoot;
+    }
+
+    /**
+     * 查找路径对应的路由值
+     *
+     * @param path 请求路径
+     * @return 路由值，未匹配时返回null
+     */
+    public T lookup(String path) {
+        if (path == null) {
+            return null;
+        }
+        T exact = exactRoutes.get(path);
+        if (exact != null) {
+            return exact;
+        }
+        T matched = prefixRoot.value;
+        Node<T> node = prefixRoot;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.children.get(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                matched = node.value;
+            }
+        }
+        return matched;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 路由表构建器
+     */
+    public static final class Builder<T> {
+
+        private final Map<String, T> exactRoutes = new HashMap<>();
+        private final Node<T> prefixRoot = new Node<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加精确匹配路由
+         *
+         * @param path  路径
+         * @param value 路由值
+         * @return 构建器
+         */
+        public Builder<T> exact(String path, T value) {
+            exactRoutes.put(path, value);
+            return this;
+        }
+
+        /**
+         * 添加前缀匹配路由
+         *
+         * @param prefix 路径前缀
+         * @param value  路由值
+         * @return 构建器
+         */
+        public Builder<T> prefix(String prefix, T value) {
+            Node<T> node = prefixRoot;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node<>());
+            }
+            node.value = value;
+            return this;
+        }
+
+        public RouteTable<T> build() {
+            return new RouteTable<>(new HashMap<>(exactRoutes), prefixRoot);
+        }
+    }
+
+    /**
+     * 前缀字典树节点
+     */
+    private static final class Node<T> {
+        private final Map<Character, Node<T>> children = new HashMap<>(4);
+        private T value;
+    }
+}